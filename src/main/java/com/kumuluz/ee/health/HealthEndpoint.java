@@ -0,0 +1,282 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.health.enums.HealthCheckType;
+import com.kumuluz.ee.health.models.HealthResponse;
+import com.kumuluz.ee.health.utils.GzipResponseCache;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Evaluates health check requests independently of the transport. Used by the {@link HealthServlet} and the health
+ * management server.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+public class HealthEndpoint {
+
+    private static final Logger LOG = Logger.getLogger(HealthEndpoint.class.getName());
+
+    private static final String CHECK_PATH_PREFIX = "/check/";
+    private static final String GROUP_PATH = "/group";
+    private static final String GROUP_PATH_PREFIX = GROUP_PATH + "/";
+
+    private static final int SC_OK = 200;
+    private static final int SC_NOT_FOUND = 404;
+    private static final int SC_INTERNAL_SERVER_ERROR = 500;
+    private static final int SC_SERVICE_UNAVAILABLE = 503;
+
+    // Default minimal size of the response body in bytes, which gets compressed
+    private static final int DEFAULT_GZIP_MIN_SIZE = 1024;
+
+    private final ConfigurationUtil configurationUtil;
+    private final HealthRegistry healthCheckRegistry;
+
+    private final ObjectMapper mapper;
+
+    private final boolean gzipEnabled;
+    private final int gzipMinSize;
+    private final GzipResponseCache gzipResponseCache;
+
+    public HealthEndpoint() {
+        configurationUtil = ConfigurationUtil.getInstance();
+        healthCheckRegistry = HealthRegistry.getInstance();
+
+        mapper = new ObjectMapper().registerModule(new Jdk8Module());
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        gzipEnabled = configurationUtil.getBoolean("kumuluzee.health.servlet.gzip.enabled").orElse(true);
+        gzipMinSize = configurationUtil.getInteger("kumuluzee.health.servlet.gzip.min-size")
+                .orElse(DEFAULT_GZIP_MIN_SIZE);
+        gzipResponseCache = new GzipResponseCache();
+    }
+
+    /**
+     * Evaluates health checks selected by the request and prepares the response.
+     *
+     * @param pathInfo       path of the request relative to the health endpoint mapping, e.g. /ready
+     * @param parameters     query parameters of the request
+     * @param acceptEncoding value of the Accept-Encoding header
+     * @return response which should be written to the client
+     */
+    public Response handle(String pathInfo, Map<String, String[]> parameters, String acceptEncoding) {
+        Response response = new Response();
+        response.getHeaders().put("Cache-Control", "must-revalidate,no-cache,no-store");
+
+        try {
+            response.setStatus(SC_OK);
+
+            // get results
+            List<HealthCheckResponse> results;
+
+            Set<String> include = getRequestCheckNames(parameters, "include");
+            Set<String> exclude = getRequestCheckNames(parameters, "exclude");
+
+            // key of the compressed body in the cache, only set for endpoints with a bounded set of values
+            String cacheKey;
+
+            String checkName = getRequestPathParameter(pathInfo, CHECK_PATH_PREFIX);
+            String groupName = getRequestPathParameter(pathInfo, GROUP_PATH_PREFIX);
+            if (checkName != null) {
+                Optional<HealthCheckResponse> result = healthCheckRegistry.getResult(checkName);
+
+                if (!result.isPresent()) {
+                    response.setStatus(SC_NOT_FOUND);
+                    return response;
+                }
+
+                results = Collections.singletonList(result.get());
+                cacheKey = "check:" + checkName;
+            } else if (groupName != null) {
+                Optional<List<HealthCheckResponse>> groupResults = healthCheckRegistry.getGroupResults(groupName,
+                        include, exclude);
+
+                if (!groupResults.isPresent()) {
+                    response.setStatus(SC_NOT_FOUND);
+                    return response;
+                }
+
+                results = groupResults.get();
+                cacheKey = "group:" + groupName;
+            } else if (GROUP_PATH.equals(pathInfo)) {
+                results = healthCheckRegistry.getGroupResults(include, exclude);
+                cacheKey = "groups";
+            } else {
+                HealthCheckType type = getRequestType(pathInfo);
+                results = healthCheckRegistry.getResults(type, include, exclude);
+                cacheKey = "type:" + type;
+            }
+
+            if (include != null || exclude != null) {
+                cacheKey = null;
+            }
+
+            // prepare response
+            HealthResponse healthResponse = new HealthResponse();
+            healthResponse.setChecks(results);
+            healthResponse.setStatus(HealthCheckResponse.Status.UP);
+
+            // check if any check is down
+            for (HealthCheckResponse result : results) {
+                if (HealthCheckResponse.Status.DOWN.equals(result.getStatus())) {
+                    response.setStatus(SC_SERVICE_UNAVAILABLE);
+                    healthResponse.setStatus(HealthCheckResponse.Status.DOWN);
+                    break;
+                }
+            }
+
+            // write results to response if servlet.response or debug is enabled
+            if (configurationUtil.getBoolean("kumuluzee.health.servlet.enabled").orElse(true) ||
+                    configurationUtil.getBoolean("kumuluzee.debug").orElse(false)) {
+                response.getHeaders().put("Content-Type", MediaType.APPLICATION_JSON);
+
+                boolean prettyPrintOff = isPrettyPrintOff(parameters);
+                byte[] body = getWriter(prettyPrintOff).writeValueAsBytes(healthResponse);
+
+                if (gzipEnabled) {
+                    response.getHeaders().put("Vary", "Accept-Encoding");
+
+                    if (body.length >= gzipMinSize && GzipResponseCache.acceptsGzip(acceptEncoding)) {
+                        body = gzipResponseCache.compress(cacheKey == null ? null : cacheKey + ":" + prettyPrintOff,
+                                body);
+                        response.getHeaders().put("Content-Encoding", "gzip");
+                    }
+                }
+
+                response.setBody(body);
+            }
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to evaluate and log health response.", exception);
+            response.setStatus(SC_INTERNAL_SERVER_ERROR);
+        } catch (Error exception) {
+            LOG.log(Level.SEVERE, "An error occurred when trying to evaluate and log health response.", exception);
+            response.setStatus(SC_INTERNAL_SERVER_ERROR);
+        }
+
+        if (response.getStatus() == SC_INTERNAL_SERVER_ERROR) {
+            response.getHeaders().remove("Content-Type");
+            response.getHeaders().remove("Content-Encoding");
+            response.setBody(null);
+        }
+
+        return response;
+    }
+
+    private boolean isPrettyPrintOff(Map<String, String[]> parameters) {
+        String[] pretty = parameters.get("pretty");
+        return pretty != null && pretty.length > 0 && "false".equals(pretty[0]);
+    }
+
+    private ObjectWriter getWriter(boolean prettyPrintOff) {
+        return prettyPrintOff ? mapper.writer() : mapper.writerWithDefaultPrettyPrinter();
+    }
+
+    private String getRequestPathParameter(String pathInfo, String pathPrefix) {
+        if (pathInfo == null || !pathInfo.startsWith(pathPrefix)) {
+            return null;
+        }
+
+        return pathInfo.substring(pathPrefix.length());
+    }
+
+    private Set<String> getRequestCheckNames(Map<String, String[]> parameters, String parameter) {
+        String[] values = parameters.get(parameter);
+
+        if (values == null) {
+            return null;
+        }
+
+        Set<String> names = new LinkedHashSet<>();
+        for (String value : values) {
+            Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .forEach(names::add);
+        }
+
+        return names;
+    }
+
+    private HealthCheckType getRequestType(String pathInfo) {
+
+        if (pathInfo == null) {
+            return HealthCheckType.BOTH;
+        }
+
+        if (pathInfo.equals("/live")) {
+            return HealthCheckType.LIVENESS;
+        } else if (pathInfo.equals("/ready")) {
+            return HealthCheckType.READINESS;
+        } else if (pathInfo.equals("/started")) {
+            return HealthCheckType.STARTUP;
+        } else {
+            return HealthCheckType.BOTH;
+        }
+    }
+
+    /**
+     * Response of the health endpoint.
+     */
+    public static class Response {
+
+        private int status;
+        private Map<String, String> headers = new LinkedHashMap<>();
+        private byte[] body;
+
+        public int getStatus() {
+            return status;
+        }
+
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public void setBody(byte[] body) {
+            this.body = body;
+        }
+    }
+}
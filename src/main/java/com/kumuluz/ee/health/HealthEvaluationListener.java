@@ -0,0 +1,45 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health;
+
+import com.kumuluz.ee.health.enums.HealthCheckType;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+
+import java.util.List;
+
+/**
+ * Listener notified by the {@link HealthRegistry} every time health checks of a type are evaluated. Evaluations of
+ * single health checks, health check groups and filtered evaluations are not reported.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+@FunctionalInterface
+public interface HealthEvaluationListener {
+
+    /**
+     * Invoked after health checks of the given type have been evaluated.
+     *
+     * @param type    type of the evaluated health checks
+     * @param results health check results
+     */
+    void onEvaluation(HealthCheckType type, List<HealthCheckResponse> results);
+}
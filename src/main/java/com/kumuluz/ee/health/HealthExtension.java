@@ -28,9 +28,14 @@ import com.kumuluz.ee.common.dependencies.*;
 import com.kumuluz.ee.common.wrapper.KumuluzServerWrapper;
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.health.enums.HealthCheckType;
+import com.kumuluz.ee.health.grpc.GrpcHealthServer;
 import com.kumuluz.ee.health.logs.HealthCheckLogger;
+import com.kumuluz.ee.health.management.HealthManagementServer;
+import com.kumuluz.ee.health.status.HealthStatusFilePublisher;
 import com.kumuluz.ee.health.utils.HealthServletMappingUtil;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.Executors;
@@ -54,8 +59,19 @@ public class HealthExtension implements Extension {
 
     private static final Logger LOG = Logger.getLogger(HealthExtension.class.getName());
 
+    // Default port of the health management server
+    private static final int DEFAULT_MANAGEMENT_PORT = 8081;
+
+    // Default port of the gRPC health server
+    private static final int DEFAULT_GRPC_PORT = 8082;
+
+    // Default path of the health status file
+    private static final String DEFAULT_STATUS_FILE_PATH = "/tmp/kumuluzee-health.status";
+
     private ScheduledExecutorService scheduler;
 
+    private HealthManagementServer managementServer;
+
     @Override
     public void load() {
     }
@@ -67,15 +83,31 @@ public class HealthExtension implements Extension {
 
         KumuluzServer server = kumuluzServerWrapper.getServer();
 
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+
+        // initialize servlet mapping
+        String servletMapping = HealthServletMappingUtil.getMapping();
+
+        // start management server, which does not depend on the application server
+        if (configurationUtil.getBoolean("kumuluzee.health.management.enabled").orElse(false)) {
+            startManagementServer(configurationUtil, servletMapping.substring(0, servletMapping.length() - 2));
+        }
+
+        // start gRPC health server
+        if (configurationUtil.getBoolean("kumuluzee.health.grpc.enabled").orElse(false)) {
+            startGrpcServer(configurationUtil);
+        }
+
+        // initialize health status file
+        if (configurationUtil.getBoolean("kumuluzee.health.status-file.enabled").orElse(false)) {
+            startStatusFilePublisher(configurationUtil);
+        }
+
         if (!(server instanceof ServletServer)) {
             LOG.warning("Server is not instance of ServletServer. Health servlet will not be initialized.");
             return;
         }
 
-        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
-
-        // initialize servlet mapping
-        String servletMapping = HealthServletMappingUtil.getMapping();
         LOG.info("Registering health servlet on " + servletMapping);
 
         // register servlet
@@ -89,11 +121,91 @@ public class HealthExtension implements Extension {
             String level = configurationUtil.get("kumuluzee.health.logs.level").orElse("FINE");
             String type = configurationUtil.get("kumuluzee.health.logs.type").orElse("both");
 
-            scheduler = Executors.newScheduledThreadPool(1);
             LOG.log(Level.INFO, "Starting health logger to log health check results every {0} s", period);
 
             HealthCheckLogger logger = new HealthCheckLogger(level, HealthCheckType.parse(type));
-            scheduler.scheduleWithFixedDelay(logger, period, period, TimeUnit.SECONDS);
+            getScheduler().scheduleWithFixedDelay(logger, period, period, TimeUnit.SECONDS);
+        }
+    }
+
+    private void startGrpcServer(ConfigurationUtil configurationUtil) {
+        try {
+            Class.forName("io.grpc.ServerBuilder");
+            Class.forName("io.grpc.health.v1.HealthGrpc");
+        } catch (ClassNotFoundException e) {
+            LOG.severe("The required grpc-services library appears to be missing. gRPC health server will not be " +
+                    "started.");
+            return;
+        }
+
+        if (!GrpcHealthServer.isTransportAvailable()) {
+            LOG.severe("No gRPC server transport (e.g. grpc-netty-shaded) was found. gRPC health server will not be " +
+                    "started.");
+            return;
+        }
+
+        int port = configurationUtil.getInteger("kumuluzee.health.grpc.port").orElse(DEFAULT_GRPC_PORT);
+        long watchPeriod = configurationUtil.getLong("kumuluzee.health.grpc.watch-period-ms").orElse(5000L);
+
+        GrpcHealthServer grpcServer = new GrpcHealthServer(port, watchPeriod);
+
+        try {
+            grpcServer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(grpcServer::stop));
+        } catch (Exception e) {
+            LOG.log(Level.SEVERE, "Could not start gRPC health server on port " + port + ".", e);
+        }
+    }
+
+    private void startStatusFilePublisher(ConfigurationUtil configurationUtil) {
+        String path = configurationUtil.get("kumuluzee.health.status-file.path")
+                .orElse(DEFAULT_STATUS_FILE_PATH);
+        int period = configurationUtil.getInteger("kumuluzee.health.status-file.period-s").orElse(10);
+
+        HealthStatusFilePublisher publisher = new HealthStatusFilePublisher(Paths.get(path));
+
+        try {
+            publisher.open();
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Could not open health status file " + path + ".", e);
+            return;
+        }
+
+        LOG.info("Publishing health status to " + path);
+        HealthRegistry.getInstance().addEvaluationListener(publisher);
+
+        // evaluate health checks periodically, so the status file is updated even if there are no health requests
+        if (period > 0) {
+            getScheduler().scheduleWithFixedDelay(() -> {
+                try {
+                    HealthRegistry.getInstance().getResultsByType();
+                } catch (Exception exception) {
+                    LOG.log(Level.SEVERE, "An exception occurred when trying to evaluate health checks.", exception);
+                }
+            }, period, period, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newScheduledThreadPool(1);
+        }
+
+        return scheduler;
+    }
+
+    private void startManagementServer(ConfigurationUtil configurationUtil, String mapping) {
+        String host = configurationUtil.get("kumuluzee.health.management.host").orElse("0.0.0.0");
+        int port = configurationUtil.getInteger("kumuluzee.health.management.port").orElse(DEFAULT_MANAGEMENT_PORT);
+        int threads = configurationUtil.getInteger("kumuluzee.health.management.threads").orElse(2);
+
+        managementServer = new HealthManagementServer(host, port, threads, mapping);
+
+        try {
+            managementServer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(managementServer::stop));
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Could not start health management server on port " + port + ".", e);
         }
     }
 
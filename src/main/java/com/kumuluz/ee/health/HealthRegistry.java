@@ -25,10 +25,24 @@ import com.kumuluz.ee.health.utils.HealthCheckWrapper;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Health Registry.
@@ -38,12 +52,20 @@ import java.util.stream.Collectors;
  */
 public class HealthRegistry {
 
+    private static final Logger LOG = Logger.getLogger(HealthRegistry.class.getName());
+
     private static HealthRegistry instance;
 
     private ConcurrentMap<String, HealthCheckWrapper> healthChecks;
 
+    private ConcurrentMap<String, ConcurrentMap<String, HealthCheck>> healthCheckGroups;
+
+    private List<HealthEvaluationListener> evaluationListeners;
+
     private HealthRegistry() {
         healthChecks = new ConcurrentHashMap<>();
+        healthCheckGroups = new ConcurrentHashMap<>();
+        evaluationListeners = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -80,12 +102,52 @@ public class HealthRegistry {
     }
 
     /**
-     * Removes health check from registry.
+     * Adds health check to a health check group. Health checks which are only registered in groups are not evaluated on
+     * the liveness, readiness and startup endpoints.
+     *
+     * @param groupName
+     * @param healthCheckName
+     * @param healthCheck
+     */
+    public void registerInGroup(String groupName, String healthCheckName, HealthCheck healthCheck) {
+        healthCheckGroups.computeIfAbsent(groupName, k -> new ConcurrentHashMap<>()).put(healthCheckName, healthCheck);
+    }
+
+    /**
+     * Removes health check from registry and from all health check groups.
      *
      * @param healthCheckName
      */
     public void unregister(String healthCheckName) {
         healthChecks.remove(healthCheckName);
+        healthCheckGroups.values().forEach(group -> group.remove(healthCheckName));
+    }
+
+    /**
+     * Adds listener, which is notified every time health checks of a type are evaluated.
+     *
+     * @param listener
+     */
+    public void addEvaluationListener(HealthEvaluationListener listener) {
+        evaluationListeners.add(listener);
+    }
+
+    /**
+     * Removes health check evaluation listener.
+     *
+     * @param listener
+     */
+    public void removeEvaluationListener(HealthEvaluationListener listener) {
+        evaluationListeners.remove(listener);
+    }
+
+    /**
+     * Returns names of all health check groups.
+     *
+     * @return set of health check group names
+     */
+    public Set<String> getGroupNames() {
+        return Collections.unmodifiableSet(healthCheckGroups.keySet());
     }
 
     /**
@@ -94,10 +156,148 @@ public class HealthRegistry {
      * @return list of health check results
      */
     public List<HealthCheckResponse> getResults(HealthCheckType type) {
-        return this.healthChecks.values().parallelStream()
-                .filter(hcw -> type.equals(HealthCheckType.BOTH) || type.equals(hcw.getType()) || (hcw.getType() == HealthCheckType.BOTH && (type == HealthCheckType.READINESS || type == HealthCheckType.LIVENESS || type == HealthCheckType.STARTUP)))
+        return getResults(type, null, null);
+    }
+
+    /**
+     * Executes selected health checks in parallel and returns results. When the include list is provided, health
+     * checks are looked up by their names and the rest of the registry is not evaluated.
+     *
+     * @param type    type of health checks to execute
+     * @param include names of health checks to execute, all health checks are executed if null
+     * @param exclude names of health checks to skip, no health checks are skipped if null
+     * @return list of health check results
+     */
+    public List<HealthCheckResponse> getResults(HealthCheckType type, Collection<String> include,
+                                                Collection<String> exclude) {
+        List<HealthCheckResponse> results = select(healthChecks, include, exclude).parallel()
+                .filter(hcw -> matchesType(hcw, type))
                 .map(hcw -> hcw.getHealthCheck().call())
                 .collect(Collectors.toList());
+
+        // filtered evaluations do not represent the status of the type
+        if (include == null && exclude == null) {
+            notifyEvaluationListeners(type, results);
+        }
+
+        return results;
     }
-}
 
+    /**
+     * Executes all health checks in parallel and returns results split by type (liveness, readiness and startup).
+     * Every health check is executed only once, even if it is of multiple types. Evaluation listeners are notified
+     * with the results of every type.
+     *
+     * @return map of health check results by type
+     */
+    public Map<HealthCheckType, List<HealthCheckResponse>> getResultsByType() {
+        List<Map.Entry<HealthCheckWrapper, HealthCheckResponse>> evaluated = healthChecks.values().parallelStream()
+                .map(hcw -> new AbstractMap.SimpleEntry<>(hcw, hcw.getHealthCheck().call()))
+                .collect(Collectors.toList());
+
+        Map<HealthCheckType, List<HealthCheckResponse>> results = new EnumMap<>(HealthCheckType.class);
+        for (HealthCheckType type : EnumSet.of(HealthCheckType.LIVENESS, HealthCheckType.READINESS,
+                HealthCheckType.STARTUP)) {
+            List<HealthCheckResponse> typeResults = evaluated.stream()
+                    .filter(entry -> matchesType(entry.getKey(), type))
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toList());
+
+            results.put(type, typeResults);
+            notifyEvaluationListeners(type, typeResults);
+        }
+
+        return results;
+    }
+
+    /**
+     * Executes health checks of a single health check group in parallel and returns results.
+     *
+     * @param groupName name of the health check group
+     * @param include   names of health checks to execute, all group members are executed if null
+     * @param exclude   names of health checks to skip, no group members are skipped if null
+     * @return list of health check results or empty optional if the health check group does not exist
+     */
+    public Optional<List<HealthCheckResponse>> getGroupResults(String groupName, Collection<String> include,
+                                                               Collection<String> exclude) {
+        ConcurrentMap<String, HealthCheck> group = healthCheckGroups.get(groupName);
+
+        if (group == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(evaluate(group, include, exclude));
+    }
+
+    /**
+     * Executes health checks of all health check groups in parallel and returns results. Health checks which are
+     * members of multiple groups are executed only once.
+     *
+     * @param include names of health checks to execute, all group members are executed if null
+     * @param exclude names of health checks to skip, no group members are skipped if null
+     * @return list of health check results
+     */
+    public List<HealthCheckResponse> getGroupResults(Collection<String> include, Collection<String> exclude) {
+        Map<String, HealthCheck> members = new HashMap<>();
+        healthCheckGroups.values().forEach(members::putAll);
+
+        return evaluate(members, include, exclude);
+    }
+
+    /**
+     * Executes a single health check, regardless of its type or health check groups it belongs to.
+     *
+     * @param healthCheckName name of the health check
+     * @return health check result or empty optional if health check with the given name is not registered
+     */
+    public Optional<HealthCheckResponse> getResult(String healthCheckName) {
+        HealthCheckWrapper wrapper = healthChecks.get(healthCheckName);
+
+        if (wrapper != null) {
+            return Optional.of(wrapper.getHealthCheck().call());
+        }
+
+        return healthCheckGroups.values().stream()
+                .map(group -> group.get(healthCheckName))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .map(HealthCheck::call);
+    }
+
+    private void notifyEvaluationListeners(HealthCheckType type, List<HealthCheckResponse> results) {
+        for (HealthEvaluationListener listener : evaluationListeners) {
+            try {
+                listener.onEvaluation(type, results);
+            } catch (Exception exception) {
+                LOG.log(Level.SEVERE, "An exception occurred in health evaluation listener.", exception);
+            }
+        }
+    }
+
+    private List<HealthCheckResponse> evaluate(Map<String, HealthCheck> members, Collection<String> include,
+                                               Collection<String> exclude) {
+        return select(members, include, exclude).parallel()
+                .map(HealthCheck::call)
+                .collect(Collectors.toList());
+    }
+
+    private <T> Stream<T> select(Map<String, T> members, Collection<String> include, Collection<String> exclude) {
+        if (include != null) {
+            return include.stream()
+                    .distinct()
+                    .filter(name -> exclude == null || !exclude.contains(name))
+                    .map(members::get)
+                    .filter(Objects::nonNull);
+        }
+
+        return members.entrySet().stream()
+                .filter(entry -> exclude == null || !exclude.contains(entry.getKey()))
+                .map(Map.Entry::getValue);
+    }
+
+    private boolean matchesType(HealthCheckWrapper hcw, HealthCheckType type) {
+        return type.equals(HealthCheckType.BOTH) || type.equals(hcw.getType()) ||
+                (hcw.getType() == HealthCheckType.BOTH && (type == HealthCheckType.READINESS ||
+                        type == HealthCheckType.LIVENESS || type == HealthCheckType.STARTUP));
+    }
+}
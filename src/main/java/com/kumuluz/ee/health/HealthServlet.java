@@ -20,24 +20,13 @@
  */
 package com.kumuluz.ee.health;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
-import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
-import com.kumuluz.ee.health.enums.HealthCheckType;
-import com.kumuluz.ee.health.models.HealthResponse;
-import org.eclipse.microprofile.health.HealthCheckResponse;
-
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.ws.rs.core.MediaType;
 import java.io.IOException;
-import java.util.List;
-import java.util.logging.Level;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -50,60 +39,32 @@ public class HealthServlet extends HttpServlet {
 
     private static final Logger LOG = Logger.getLogger(HealthServlet.class.getName());
 
-    private static ConfigurationUtil configurationUtil;
-    private static HealthRegistry healthCheckRegistry;
-
-    private static ObjectMapper mapper;
-
-    private String servletMapping;
+    private static HealthEndpoint healthEndpoint;
 
     public void init() throws ServletException {
-        configurationUtil = ConfigurationUtil.getInstance();
-        healthCheckRegistry = HealthRegistry.getInstance();
-
-        mapper = new ObjectMapper().registerModule(new Jdk8Module());
-        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-
-        servletMapping = getInitParameter("com.kumuluz.ee.health.servletMapping");
+        healthEndpoint = new HealthEndpoint();
     }
 
     public void doGet(HttpServletRequest request, HttpServletResponse response) {
-        response.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+        HealthEndpoint.Response healthEndpointResponse = healthEndpoint.handle(request.getPathInfo(),
+                request.getParameterMap(), request.getHeader("Accept-Encoding"));
+
+        response.setStatus(healthEndpointResponse.getStatus());
+        for (Map.Entry<String, String> header : healthEndpointResponse.getHeaders().entrySet()) {
+            response.setHeader(header.getKey(), header.getValue());
+        }
 
         ServletOutputStream output = null;
         try {
             output = response.getOutputStream();
-            response.setStatus(HttpServletResponse.SC_OK);
-
-            // get results
-            List<HealthCheckResponse> results = healthCheckRegistry.getResults(getRequestType(request));
-
-            // prepare response
-            HealthResponse healthResponse = new HealthResponse();
-            healthResponse.setChecks(results);
-            healthResponse.setStatus(HealthCheckResponse.Status.UP);
-
-            // check if any check is down
-            for (HealthCheckResponse result : results) {
-                if (HealthCheckResponse.Status.DOWN.equals(result.getStatus())) {
-                    response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
-                    healthResponse.setStatus(HealthCheckResponse.Status.DOWN);
-                    break;
-                }
-            }
 
-            // write results to response if servlet.response or debug is enabled
-            if (configurationUtil.getBoolean("kumuluzee.health.servlet.enabled").orElse(true) ||
-                    configurationUtil.getBoolean("kumuluzee.debug").orElse(false)) {
-                response.setContentType(MediaType.APPLICATION_JSON);
-                getWriter(request).writeValue(output, healthResponse);
+            byte[] body = healthEndpointResponse.getBody();
+            if (body != null) {
+                response.setContentLength(body.length);
+                output.write(body);
             }
-        } catch (Exception exception) {
-            LOG.log(Level.SEVERE, "An exception occurred when trying to evaluate and log health response.", exception);
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-        } catch (Error exception) {
-            LOG.log(Level.SEVERE, "An error occurred when trying to evaluate and log health response.", exception);
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        } catch (IOException exception) {
+            LOG.severe("Cannot write health response: " + exception.getMessage());
         } finally {
             if (output != null) {
                 try {
@@ -114,26 +75,4 @@ public class HealthServlet extends HttpServlet {
             }
         }
     }
-
-    private ObjectWriter getWriter(HttpServletRequest request) {
-        boolean prettyPrintOff = "false".equals(request.getParameter("pretty"));
-        return prettyPrintOff ? mapper.writer() : mapper.writerWithDefaultPrettyPrinter();
-    }
-
-    private HealthCheckType getRequestType(HttpServletRequest request) {
-
-        if (request.getRequestURI() == null) {
-            return HealthCheckType.BOTH;
-        }
-
-        if (request.getRequestURI().endsWith(servletMapping + "/live")) {
-            return HealthCheckType.LIVENESS;
-        } else if (request.getRequestURI().endsWith(servletMapping + "/ready")) {
-            return HealthCheckType.READINESS;
-        } else if (request.getRequestURI().endsWith(servletMapping + "/started")) {
-            return HealthCheckType.STARTUP;
-        } else {
-            return HealthCheckType.BOTH;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -26,18 +26,31 @@ import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Data source health check.
+ * Data source health check. Data sources configured with a JNDI name are validated with a connection from the pooled
+ * {@link DataSource} bound in JNDI, other data sources are validated with a long-lived connection, which is
+ * re-established when it is no longer valid.
  *
  * @author Marko Škrjanec
  * @since 1.0.0
@@ -48,17 +61,36 @@ public class DataSourceHealthCheck extends KumuluzHealthCheck implements HealthC
 
     private static final Logger LOG = Logger.getLogger(DataSourceHealthCheck.class.getName());
 
+    // Default timeout of the connection validation in seconds
+    private static final int DEFAULT_VALIDATION_TIMEOUT_S = 5;
+
+    private volatile List<DataSourceConnection> dataSourceConnections = Collections.emptyList();
+    private volatile int parallelism;
+
+    @PostConstruct
+    public void init() {
+        loadConfiguration();
+        // connection properties of data sources with a JNDI name are read from kumuluzee.datasources
+        subscribeToConfigurationChanges(this::loadConfiguration, "kumuluzee.datasources");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        List<DataSourceConnection> previousConnections = dataSourceConnections;
+        dataSourceConnections = Collections.emptyList();
+        previousConnections.forEach(DataSourceConnection::close);
+    }
+
     @Override
     public HealthCheckResponse call() {
         HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse
                 .named(DataSourceHealthCheck.class.getSimpleName())
                 .up();
 
-        List<DataSourceHealthCheckConfiguration> configurationList = getConfigurationList();
-
-        for (DataSourceHealthCheckConfiguration configuration : configurationList) {
-            checkConnection(configuration, healthCheckResponseBuilder);
-        }
+        TargetExecutor.map(dataSourceConnections, parallelism, this::checkConnection)
+                .forEach(result -> result.applyTo(healthCheckResponseBuilder));
 
         return healthCheckResponseBuilder.build();
     }
@@ -78,145 +110,353 @@ public class DataSourceHealthCheck extends KumuluzHealthCheck implements HealthC
         return true;
     }
 
-    private List<DataSourceHealthCheckConfiguration> getConfigurationList() {
+    /**
+     * Parses the configuration and replaces the data source connections. Previous connections are closed.
+     */
+    private void loadConfiguration() {
         ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
 
-        List<DataSourceHealthCheckConfiguration> configurationList = new ArrayList<>();
+        // prefixes of the data sources configured in kumuluzee.datasources by JNDI name
+        Map<String, String> dataSourcePrefixes = new HashMap<>();
+        configurationUtil.getListSize("kumuluzee.datasources").ifPresent(size -> {
+            for (int i = 0; i < size; i++) {
+                String prefix = "kumuluzee.datasources[" + i + "]";
+                configurationUtil.get(prefix + ".jndi-name")
+                        .ifPresent(jndiName -> dataSourcePrefixes.putIfAbsent(jndiName, prefix));
+            }
+        });
 
-        Optional<Integer> datasourcesListSizeOptional = ConfigurationUtil.getInstance().getListSize(name());
+        List<DataSourceConnection> connections = new ArrayList<>();
 
-        boolean hasJndiNameReference = false;
+        Optional<Integer> datasourcesListSizeOptional = configurationUtil.getListSize(name());
         if (datasourcesListSizeOptional.isPresent()) {
             for (int i = 0; i < datasourcesListSizeOptional.get(); i++) {
-                DataSourceHealthCheckConfiguration configuration = new DataSourceHealthCheckConfiguration();
+                connections.add(new DataSourceConnection(
+                        getConfiguration(configurationUtil, name() + "[" + i + "]", dataSourcePrefixes)));
+            }
+        } else {
+            connections.add(new DataSourceConnection(
+                    getConfiguration(configurationUtil, name(), dataSourcePrefixes)));
+        }
 
-                Optional<String> jndiNameOptional = configurationUtil.get(name() + "[" + i + "].jndi-name");
-                if (jndiNameOptional.isPresent()) {
-                    configuration.setJndiName(jndiNameOptional.get());
+        parallelism = getParallelism();
 
-                    hasJndiNameReference = true;
-                } else {
-                    configurationUtil.get(name() + "[" + i + "].connection-url").ifPresent(configuration::setConnectionUrl);
-                    configurationUtil.get(name() + "[" + i + "].username").ifPresent(configuration::setUsername);
-                    configurationUtil.get(name() + "[" + i + "].password").ifPresent(configuration::setPassword);
-                }
+        List<DataSourceConnection> previousConnections = dataSourceConnections;
+        dataSourceConnections = Collections.unmodifiableList(connections);
+        previousConnections.forEach(DataSourceConnection::close);
+    }
+
+    private DataSourceHealthCheckConfiguration getConfiguration(ConfigurationUtil configurationUtil, String prefix,
+                                                                Map<String, String> dataSourcePrefixes) {
+        String jndiName = configurationUtil.get(prefix + ".jndi-name").orElse(null);
+
+        // connection properties of data sources with a JNDI name are read from kumuluzee.datasources
+        String connectionPrefix = prefix;
+        if (jndiName != null) {
+            connectionPrefix = dataSourcePrefixes.get(jndiName);
+        }
+
+        String connectionUrl = null;
+        String username = null;
+        String password = null;
+        if (connectionPrefix != null) {
+            connectionUrl = configurationUtil.get(connectionPrefix + ".connection-url").orElse(null);
+            username = configurationUtil.get(connectionPrefix + ".username").orElse(null);
+            password = configurationUtil.get(connectionPrefix + ".password").orElse(null);
+        }
+
+        int validationTimeout = configurationUtil.getInteger(prefix + ".validation-timeout-s")
+                .orElse(DEFAULT_VALIDATION_TIMEOUT_S);
+        String validationQuery = configurationUtil.get(prefix + ".validation-query").orElse(null);
+        int queryTimeout = configurationUtil.getInteger(prefix + ".query-timeout-s").orElse(validationTimeout);
+        long latencyThreshold = configurationUtil.getLong(prefix + ".latency-threshold-ms").orElse(0L);
+        long degradedLatencyThreshold = configurationUtil.getLong(prefix + ".degraded-latency-threshold-ms")
+                .orElse(0L);
+
+        // data sources are identified by the JNDI name or the configured name, the connection URL is never published
+        String name = jndiName != null && !jndiName.isEmpty() ? jndiName : configurationUtil.get(prefix + ".name")
+                .orElse(null);
+
+        return new DataSourceHealthCheckConfiguration(name, jndiName, connectionUrl, username, password,
+                validationTimeout, validationQuery, queryTimeout, latencyThreshold, degradedLatencyThreshold);
+    }
+
+    /**
+     * Helper method for checking connection.
+     */
+    private TargetResult checkConnection(DataSourceConnection dataSourceConnection) {
+        DataSourceHealthCheckConfiguration configuration = dataSourceConnection.getConfiguration();
+
+        TargetResult result = new TargetResult();
+
+        // identifier and latency are only included if the data source has a JNDI name or a name
+        String identifier = configuration.getName();
 
-                configurationList.add(configuration);
+        long start = System.nanoTime();
+        boolean valid;
+        try {
+            valid = dataSourceConnection.validate();
+
+            if (!valid) {
+                LOG.severe(String.format("Connection to data source (%s) is not valid.", configuration.getConnectionUrl()));
             }
-        } else {
-            DataSourceHealthCheckConfiguration configuration = new DataSourceHealthCheckConfiguration();
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, String.format("An exception occurred when trying to validate connection to data source (%s).", configuration.getConnectionUrl()), exception);
+            valid = false;
+        }
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        if (!valid) {
+            return identifier != null ? result.down(identifier) : result.down();
+        }
+
+        if (identifier != null) {
+            result.withData(identifier + ".latency-ms", latency);
+        }
+
+        if (configuration.getLatencyThreshold() > 0 && latency > configuration.getLatencyThreshold()) {
+            LOG.severe(String.format("Latency of data source (%s) is %d ms, which exceeds the threshold of %d ms.",
+                    configuration.getConnectionUrl(), latency, configuration.getLatencyThreshold()));
+            return identifier != null ? result.down(identifier) : result.down();
+        }
+
+        if (configuration.getDegradedLatencyThreshold() > 0 && latency > configuration.getDegradedLatencyThreshold()) {
+            LOG.warning(String.format("Latency of data source (%s) is %d ms, which exceeds the degraded threshold of %d ms.",
+                    configuration.getConnectionUrl(), latency, configuration.getDegradedLatencyThreshold()));
+            return identifier != null ? result.degraded(identifier) : result;
+        }
 
-            Optional<String> jndiNameOptional = configurationUtil.get(name() + ".jndi-name");
-            if (jndiNameOptional.isPresent()) {
-                configuration.setJndiName(jndiNameOptional.get());
+        return identifier != null ? result.up(identifier) : result;
+    }
+}
 
-                hasJndiNameReference = true;
-            } else {
-                configurationUtil.get(name() + ".connection-url").ifPresent(configuration::setConnectionUrl);
-                configurationUtil.get(name() + ".username").ifPresent(configuration::setUsername);
-                configurationUtil.get(name() + ".password").ifPresent(configuration::setPassword);
+/**
+ * Connection used for validating a data source. Uses the pooled {@link DataSource} bound in JNDI when available,
+ * otherwise keeps a single long-lived connection, which is re-established when it is no longer valid.
+ */
+class DataSourceConnection {
+
+    private static final Logger LOG = Logger.getLogger(DataSourceConnection.class.getName());
+
+    private final DataSourceHealthCheckConfiguration configuration;
+
+    private volatile DataSource dataSource;
+
+    private Connection connection;
+
+    DataSourceConnection(DataSourceHealthCheckConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    DataSourceHealthCheckConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Validates the data source with the validation query when configured, otherwise with
+     * {@link Connection#isValid(int)}.
+     *
+     * @return true if the connection is valid
+     * @throws SQLException if a connection could not be established or the validation query failed
+     */
+    boolean validate() throws SQLException {
+        DataSource pooledDataSource = getDataSource();
+
+        if (pooledDataSource != null) {
+            try (Connection pooledConnection = pooledDataSource.getConnection()) {
+                return validate(pooledConnection);
             }
+        }
 
-            configurationList.add(configuration);
+        return validateLongLivedConnection();
+    }
+
+    private boolean validate(Connection connection) throws SQLException {
+        if (configuration.getValidationQuery() == null) {
+            return connection.isValid(configuration.getValidationTimeout());
         }
 
-        Optional<Integer> dsSizeOpt = configurationUtil.getListSize("kumuluzee.datasources");
-        if (hasJndiNameReference && dsSizeOpt.isPresent()) {
-            for (DataSourceHealthCheckConfiguration configuration : configurationList) {
-                if (configuration.getJndiName() == null) {
-                    continue;
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(configuration.getQueryTimeout());
+
+            if (statement.execute(configuration.getValidationQuery())) {
+                try (ResultSet resultSet = statement.getResultSet()) {
+                    resultSet.next();
                 }
+            }
+        }
 
-                for (int i = 0; i < dsSizeOpt.get(); i++) {
-                    String prefix = "kumuluzee.datasources[" + i + "]";
-                    Optional<String> dsJndiName = configurationUtil.get(prefix + ".jndi-name");
+        return true;
+    }
 
-                    if (dsJndiName.isPresent() && dsJndiName.get().equals(configuration.getJndiName())) {
-                        configurationUtil.get(prefix + ".connection-url").ifPresent(configuration::setConnectionUrl);
-                        configurationUtil.get(prefix + ".username").ifPresent(configuration::setUsername);
-                        configurationUtil.get(prefix + ".password").ifPresent(configuration::setPassword);
-                        break;
-                    }
+    private synchronized boolean validateLongLivedConnection() throws SQLException {
+        if (connection != null) {
+            try {
+                if (validate(connection)) {
+                    return true;
+                }
+            } catch (SQLException exception) {
+                // a failing validation query on a working connection does not need a new connection
+                if (!isBroken(connection, exception)) {
+                    throw exception;
                 }
+
+                LOG.log(Level.FINE, String.format("Validation of connection to data source (%s) failed. Reconnecting.", configuration.getConnectionUrl()), exception);
             }
         }
 
-        return configurationList;
+        close();
+
+        if (configuration.getUsername() == null && configuration.getPassword() == null) {
+            connection = DriverManager.getConnection(configuration.getConnectionUrl());
+        } else {
+            connection = DriverManager.getConnection(configuration.getConnectionUrl(), configuration.getUsername(), configuration.getPassword());
+        }
+
+        return validate(connection);
     }
 
     /**
-     * Helper method for checking connection.
+     * Checks if the validation failed because of the connection, either with a connection exception (SQLState class
+     * {@code 08}) or because the connection is no longer valid.
      */
-    private void checkConnection(DataSourceHealthCheckConfiguration configuration, HealthCheckResponseBuilder healthCheckResponseBuilder) {
-        Connection connection = null;
+    private boolean isBroken(Connection connection, SQLException exception) {
+        String sqlState = exception.getSQLState();
+        if (sqlState != null && sqlState.startsWith("08")) {
+            return true;
+        }
 
         try {
-            if (configuration.getUsername() == null && configuration.getPassword() == null) {
-                connection = DriverManager.getConnection(configuration.getConnectionUrl());
-            } else {
-                connection = DriverManager.getConnection(configuration.getConnectionUrl(), configuration.getUsername(), configuration.getPassword());
-            }
+            return !connection.isValid(configuration.getValidationTimeout());
+        } catch (SQLException e) {
+            return true;
+        }
+    }
 
-            // Only include identifier if JNDI name is available
-            if (configuration.getJndiName() != null && !configuration.getJndiName().isEmpty()) {
-                healthCheckResponseBuilder.withData(configuration.getJndiName(), HealthCheckResponse.Status.UP.toString());
+    synchronized void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException exception) {
+                LOG.log(Level.FINE, String.format("An exception occurred when trying to close connection to data source (%s).", configuration.getConnectionUrl()), exception);
             }
-        } catch (Exception exception) {
-            LOG.log(Level.SEVERE, String.format("An exception occurred when trying to establish connection to data source (%s).", configuration.getConnectionUrl()), exception);
+            connection = null;
+        }
+    }
+
+    /**
+     * Looks up the data source in JNDI until it is found. Data sources which are not bound (yet) fall back to the
+     * long-lived connection, which is closed once the data source is bound.
+     */
+    private DataSource getDataSource() {
+        DataSource pooledDataSource = dataSource;
 
-            // Only include identifier if JNDI name is available
-            if (configuration.getJndiName() != null && !configuration.getJndiName().isEmpty()) {
-                healthCheckResponseBuilder.withData(configuration.getJndiName(), HealthCheckResponse.Status.DOWN.toString());
+        if (pooledDataSource == null) {
+            pooledDataSource = lookupDataSource(configuration.getJndiName());
+
+            if (pooledDataSource != null) {
+                dataSource = pooledDataSource;
+                close();
             }
-            healthCheckResponseBuilder.down();
-        } finally {
-            if (connection != null) {
+        }
+
+        return pooledDataSource;
+    }
+
+    private static DataSource lookupDataSource(String jndiName) {
+        if (jndiName == null || jndiName.isEmpty()) {
+            return null;
+        }
+
+        try {
+            InitialContext context = new InitialContext();
+
+            for (String name : new String[]{jndiName, "java:comp/env/" + jndiName}) {
                 try {
-                    connection.close();
-                } catch (SQLException exception) {
-                    LOG.log(Level.SEVERE, String.format("An exception occurred when trying to close connection to data source (%s).", configuration.getConnectionUrl()), exception);
+                    Object dataSource = context.lookup(name);
+
+                    if (dataSource instanceof DataSource) {
+                        return (DataSource) dataSource;
+                    }
+                } catch (NamingException ignored) {
+                    // try next name
                 }
             }
+        } catch (NamingException exception) {
+            LOG.log(Level.FINE, "JNDI is not available.", exception);
         }
+
+        LOG.fine(String.format("Data source %s is not bound in JNDI. Connecting with the connection URL.", jndiName));
+
+        return null;
     }
 }
 
 class DataSourceHealthCheckConfiguration {
 
-    private String jndiName;
-    private String connectionUrl;
-    private String username;
-    private String password;
+    private final String name;
+    private final String jndiName;
+    private final String connectionUrl;
+    private final String username;
+    private final String password;
+    private final int validationTimeout;
+    private final String validationQuery;
+    private final int queryTimeout;
+    private final long latencyThreshold;
+    private final long degradedLatencyThreshold;
+
+    DataSourceHealthCheckConfiguration(String name, String jndiName, String connectionUrl, String username,
+                                       String password, int validationTimeout, String validationQuery,
+                                       int queryTimeout, long latencyThreshold, long degradedLatencyThreshold) {
+        this.name = name;
+        this.jndiName = jndiName;
+        this.connectionUrl = connectionUrl;
+        this.username = username;
+        this.password = password;
+        this.validationTimeout = validationTimeout;
+        this.validationQuery = validationQuery;
+        this.queryTimeout = queryTimeout;
+        this.latencyThreshold = latencyThreshold;
+        this.degradedLatencyThreshold = degradedLatencyThreshold;
+    }
+
+    public String getName() {
+        return name;
+    }
 
     public String getJndiName() {
         return jndiName;
     }
 
-    public void setJndiName(String jndiName) {
-        this.jndiName = jndiName;
-    }
-
     public String getConnectionUrl() {
         return connectionUrl;
     }
 
-    public void setConnectionUrl(String connectionUrl) {
-        this.connectionUrl = connectionUrl;
-    }
-
     public String getUsername() {
         return username;
     }
 
-    public void setUsername(String username) {
-        this.username = username;
-    }
-
     public String getPassword() {
         return password;
     }
 
-    public void setPassword(String password) {
-        this.password = password;
+    public int getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    public String getValidationQuery() {
+        return validationQuery;
+    }
+
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    public long getLatencyThreshold() {
+        return latencyThreshold;
+    }
+
+    public long getDegradedLatencyThreshold() {
+        return degradedLatencyThreshold;
     }
 }
@@ -24,15 +24,28 @@ import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.nio.file.FileStore;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Free disk space health check.
+ * Free disk space health check. Checks the usable space of the file stores of the configured paths against absolute
+ * and percentage thresholds and estimates the time until a file store is full from the samples of its usable space.
  *
  * @author Marko Škrjanec
  * @since 1.0.0
@@ -46,23 +59,78 @@ public class DiskSpaceHealthCheck extends KumuluzHealthCheck implements HealthCh
     // Default disk space threshold of 100 MB
     private static final long DEFAULT_THRESHOLD = 100000000;
 
+    // Default path of the checked file store
+    private static final String DEFAULT_PATH = "/";
+
+    // Default window of the usable space samples used for estimating the time until the file store is full
+    private static final long DEFAULT_FILL_WINDOW_S = 900;
+
+    private volatile List<DiskVolume> volumes = Collections.emptyList();
+
+    @PostConstruct
+    public void init() {
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+    }
+
+    /**
+     * Parses the configuration and replaces the volumes. Samples of volumes with an unchanged path and window are kept.
+     */
+    private void loadConfiguration() {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        List<DiskVolume> diskVolumes = new ArrayList<>();
+
+        Map<String, DiskVolume> previousVolumes = new HashMap<>();
+        volumes.forEach(volume -> previousVolumes.put(volume.getConfiguration().getPath(), volume));
+
+        List<DiskVolumeConfiguration> configurations = new ArrayList<>();
+        Optional<Integer> listSize = configurationUtil.getListSize(name());
+        if (listSize.isPresent()) {
+            for (int i = 0; i < listSize.get(); i++) {
+                configurations.add(getConfiguration(configurationUtil, name() + "[" + i + "]"));
+            }
+        } else {
+            configurations.add(getConfiguration(configurationUtil, name()));
+        }
+
+        for (DiskVolumeConfiguration configuration : configurations) {
+            diskVolumes.add(new DiskVolume(configuration, previousVolumes.get(configuration.getPath())));
+        }
+
+        volumes = Collections.unmodifiableList(diskVolumes);
+    }
+
+    private DiskVolumeConfiguration getConfiguration(ConfigurationUtil configurationUtil, String prefix) {
+        String path = configurationUtil.get(prefix + ".path").orElse(DEFAULT_PATH);
+
+        return new DiskVolumeConfiguration(
+                configurationUtil.get(prefix + ".name").orElse(path),
+                path,
+                configurationUtil.getLong(prefix + ".threshold").orElse(DEFAULT_THRESHOLD),
+                configurationUtil.getLong(prefix + ".degraded-threshold").orElse(0L),
+                configurationUtil.getDouble(prefix + ".threshold-percent").orElse(0.0),
+                configurationUtil.getDouble(prefix + ".degraded-threshold-percent").orElse(0.0),
+                configurationUtil.getLong(prefix + ".fill-horizon-s").orElse(0L),
+                configurationUtil.getLong(prefix + ".degraded-fill-horizon-s").orElse(0L),
+                configurationUtil.getLong(prefix + ".fill-window-s").orElse(DEFAULT_FILL_WINDOW_S));
+    }
+
     @Override
     public HealthCheckResponse call() {
-        long threshold = ConfigurationUtil.getInstance()
-                .getLong(name() + ".threshold")
-                .orElse(DEFAULT_THRESHOLD);
+        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse
+                .named(DiskSpaceHealthCheck.class.getSimpleName())
+                .up();
 
-        try {
-            if (Files.getFileStore(Paths.get("/")).getUsableSpace() >= threshold) {
-                return HealthCheckResponse.up(DiskSpaceHealthCheck.class.getSimpleName());
-            } else {
-                LOG.severe("Disk space is getting low.");
-                return HealthCheckResponse.down(DiskSpaceHealthCheck.class.getSimpleName());
-            }
-        } catch (Exception exception) {
-            LOG.log(Level.SEVERE, "An exception occurred when trying to read disk space.", exception);
-            return HealthCheckResponse.down(DiskSpaceHealthCheck.class.getSimpleName());
+        for (DiskVolume volume : volumes) {
+            volume.check().applyTo(healthCheckResponseBuilder);
         }
+
+        return healthCheckResponseBuilder.build();
     }
 
     @Override
@@ -75,3 +143,236 @@ public class DiskSpaceHealthCheck extends KumuluzHealthCheck implements HealthCh
         return true;
     }
 }
+
+/**
+ * File store of a configured path with the samples of its usable space. Samples are kept in a fixed size ring buffer
+ * and are taken at most once per {@code window / MAX_SAMPLES}, so the check is cheap regardless of how often it runs.
+ */
+class DiskVolume {
+
+    private static final Logger LOG = Logger.getLogger(DiskVolume.class.getName());
+
+    // Maximum number of samples in the window
+    private static final int MAX_SAMPLES = 60;
+
+    // Minimum number of samples needed for estimating the time until the file store is full
+    private static final int MIN_SAMPLES = 5;
+
+    private final DiskVolumeConfiguration configuration;
+    private final long sampleInterval;
+
+    private final long[] sampleTimes = new long[MAX_SAMPLES];
+    private final long[] sampleUsableSpace = new long[MAX_SAMPLES];
+    private int firstSample;
+    private int sampleCount;
+
+    private FileStore fileStore;
+
+    DiskVolume(DiskVolumeConfiguration configuration, DiskVolume previous) {
+        this.configuration = configuration;
+        this.sampleInterval = TimeUnit.SECONDS.toNanos(configuration.getFillWindow()) / MAX_SAMPLES;
+
+        if (previous != null && previous.configuration.getFillWindow() == configuration.getFillWindow()) {
+            synchronized (previous) {
+                System.arraycopy(previous.sampleTimes, 0, sampleTimes, 0, MAX_SAMPLES);
+                System.arraycopy(previous.sampleUsableSpace, 0, sampleUsableSpace, 0, MAX_SAMPLES);
+                firstSample = previous.firstSample;
+                sampleCount = previous.sampleCount;
+                fileStore = previous.fileStore;
+            }
+        }
+    }
+
+    DiskVolumeConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    synchronized TargetResult check() {
+        long usableSpace;
+        long totalSpace;
+        try {
+            if (fileStore == null) {
+                fileStore = Files.getFileStore(Paths.get(configuration.getPath()));
+            }
+
+            usableSpace = fileStore.getUsableSpace();
+            totalSpace = fileStore.getTotalSpace();
+        } catch (IOException | RuntimeException exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to read disk space of " +
+                    configuration.getPath() + ".", exception);
+            fileStore = null;
+            return new TargetResult().down(configuration.getName());
+        }
+
+        return check(System.nanoTime(), usableSpace, totalSpace);
+    }
+
+    /**
+     * Samples the usable space of the file store and evaluates it against the thresholds.
+     *
+     * @param time        time of the measurement in nanoseconds, as returned by {@link System#nanoTime()}
+     * @param usableSpace usable space of the file store in bytes
+     * @param totalSpace  total space of the file store in bytes
+     * @return result of the volume
+     */
+    synchronized TargetResult check(long time, long usableSpace, long totalSpace) {
+        String name = configuration.getName();
+        TargetResult result = new TargetResult();
+
+        double usablePercent = totalSpace > 0 ? 100.0 * usableSpace / totalSpace : 0;
+        long timeToFull = addSample(time, usableSpace);
+
+        result.withData(name + ".usable-bytes", usableSpace);
+        result.withData(name + ".usable-percent", Math.round(usablePercent));
+        if (timeToFull >= 0) {
+            result.withData(name + ".time-to-full-s", timeToFull);
+        }
+
+        if (usableSpace < configuration.getThreshold() || usablePercent < configuration.getThresholdPercent() ||
+                within(timeToFull, configuration.getFillHorizon())) {
+            LOG.severe(String.format("Disk space of %s is getting low: %d bytes (%.1f %%) usable.",
+                    configuration.getPath(), usableSpace, usablePercent) + estimate(timeToFull));
+            return result.down(name);
+        }
+
+        if (usableSpace < configuration.getDegradedThreshold() ||
+                usablePercent < configuration.getDegradedThresholdPercent() ||
+                within(timeToFull, configuration.getDegradedFillHorizon())) {
+            LOG.warning(String.format("Disk space of %s is getting low: %d bytes (%.1f %%) usable.",
+                    configuration.getPath(), usableSpace, usablePercent) + estimate(timeToFull));
+            return result.degraded(name);
+        }
+
+        return result.up(name);
+    }
+
+    private static boolean within(long timeToFull, long horizon) {
+        return horizon > 0 && timeToFull >= 0 && timeToFull < horizon;
+    }
+
+    private static String estimate(long timeToFull) {
+        return timeToFull >= 0 ? " Estimated time until full: " + timeToFull + " s." : "";
+    }
+
+    /**
+     * Adds the sample when the sample interval passed since the last sample, removes samples outside the window and
+     * estimates the time until the file store is full with a linear regression of the usable space over time.
+     *
+     * @return estimated time until full in seconds or -1 if the usable space is not decreasing or there are not enough
+     * samples
+     */
+    private long addSample(long time, long usableSpace) {
+        long windowStart = time - TimeUnit.SECONDS.toNanos(configuration.getFillWindow());
+        while (sampleCount > 0 && sampleTimes[firstSample] < windowStart) {
+            firstSample = (firstSample + 1) % MAX_SAMPLES;
+            sampleCount--;
+        }
+
+        int lastSample = (firstSample + sampleCount - 1) % MAX_SAMPLES;
+        if (sampleCount == 0 || time - sampleTimes[lastSample] >= sampleInterval) {
+            if (sampleCount == MAX_SAMPLES) {
+                firstSample = (firstSample + 1) % MAX_SAMPLES;
+                sampleCount--;
+            }
+
+            int sample = (firstSample + sampleCount) % MAX_SAMPLES;
+            sampleTimes[sample] = time;
+            sampleUsableSpace[sample] = usableSpace;
+            sampleCount++;
+        }
+
+        if (sampleCount < MIN_SAMPLES) {
+            return -1;
+        }
+
+        double meanTime = 0;
+        double meanUsableSpace = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            int sample = (firstSample + i) % MAX_SAMPLES;
+            meanTime += (sampleTimes[sample] - windowStart) / 1e9;
+            meanUsableSpace += sampleUsableSpace[sample];
+        }
+        meanTime /= sampleCount;
+        meanUsableSpace /= sampleCount;
+
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            int sample = (firstSample + i) % MAX_SAMPLES;
+            double deltaTime = (sampleTimes[sample] - windowStart) / 1e9 - meanTime;
+            covariance += deltaTime * (sampleUsableSpace[sample] - meanUsableSpace);
+            variance += deltaTime * deltaTime;
+        }
+
+        // usable space in bytes per second
+        double slope = variance > 0 ? covariance / variance : 0;
+        if (slope >= 0) {
+            return -1;
+        }
+
+        return (long) (usableSpace / -slope);
+    }
+}
+
+class DiskVolumeConfiguration {
+
+    private final String name;
+    private final String path;
+    private final long threshold;
+    private final long degradedThreshold;
+    private final double thresholdPercent;
+    private final double degradedThresholdPercent;
+    private final long fillHorizon;
+    private final long degradedFillHorizon;
+    private final long fillWindow;
+
+    DiskVolumeConfiguration(String name, String path, long threshold, long degradedThreshold, double thresholdPercent,
+                            double degradedThresholdPercent, long fillHorizon, long degradedFillHorizon,
+                            long fillWindow) {
+        this.name = name;
+        this.path = path;
+        this.threshold = threshold;
+        this.degradedThreshold = degradedThreshold;
+        this.thresholdPercent = thresholdPercent;
+        this.degradedThresholdPercent = degradedThresholdPercent;
+        this.fillHorizon = fillHorizon;
+        this.degradedFillHorizon = degradedFillHorizon;
+        this.fillWindow = fillWindow;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public long getDegradedThreshold() {
+        return degradedThreshold;
+    }
+
+    public double getThresholdPercent() {
+        return thresholdPercent;
+    }
+
+    public double getDegradedThresholdPercent() {
+        return degradedThresholdPercent;
+    }
+
+    public long getFillHorizon() {
+        return fillHorizon;
+    }
+
+    public long getDegradedFillHorizon() {
+        return degradedFillHorizon;
+    }
+
+    public long getFillWindow() {
+        return fillWindow;
+    }
+}
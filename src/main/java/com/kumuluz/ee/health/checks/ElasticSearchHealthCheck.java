@@ -20,24 +20,38 @@
  */
 package com.kumuluz.ee.health.checks;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.glassfish.jersey.client.ClientProperties;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
-import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
- * Elasticsearch health check.
+ * Elasticsearch health check. Reads the cluster health of the configured clusters, optionally waiting on the server for
+ * the cluster to reach a status, and extracts only the status and shard counts from the streamed response.
  *
  * @author Marko Škrjanec
  * @since 1.0.0
@@ -47,41 +61,186 @@ import java.util.logging.Logger;
 public class ElasticSearchHealthCheck extends KumuluzHealthCheck implements HealthCheck {
 
     private static final Logger LOG = Logger.getLogger(ElasticSearchHealthCheck.class.getName());
-    private static final Client CLIENT = ClientBuilder.newClient();
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
     // Default elastic search cluster health check url
     private static final String DEFAULT_CLUSTER_HEALTH_URL = "http://localhost:9200/_cluster/health";
 
     private static final String GREEN = "green";
     private static final String YELLOW = "yellow";
-    private static final String STATUS = "status";
+
+    // Number of cluster health fields read from the response
+    private static final int HEALTH_FIELDS = 5;
+
+    private volatile List<ElasticSearchClusterConfiguration> clusters = Collections.emptyList();
+    private volatile int parallelism;
+
+    private Client client;
+
+    @PostConstruct
+    public void init() {
+        client = ClientBuilder.newClient();
+
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private void loadConfiguration() {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        List<ElasticSearchClusterConfiguration> configurations = new ArrayList<>();
+
+        Optional<Integer> listSize = configurationUtil.getListSize(name());
+        if (listSize.isPresent()) {
+            for (int i = 0; i < listSize.get(); i++) {
+                configurations.add(getConfiguration(configurationUtil, name() + "[" + i + "]",
+                        "elasticsearch-" + i));
+            }
+        } else {
+            configurations.add(getConfiguration(configurationUtil, name(), "elasticsearch"));
+        }
+
+        clusters = Collections.unmodifiableList(configurations);
+        parallelism = getParallelism();
+    }
+
+    private ElasticSearchClusterConfiguration getConfiguration(ConfigurationUtil configurationUtil, String prefix,
+                                                               String defaultName) {
+        // nodes of the cluster, which are tried in order until one of them responds
+        List<String> connectionUrls = Arrays.stream(configurationUtil.get(prefix + ".connection-url")
+                .orElse(DEFAULT_CLUSTER_HEALTH_URL).split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .collect(Collectors.toList());
+
+        String minStatus = configurationUtil.get(prefix + ".min-status").orElse(YELLOW).toLowerCase(Locale.ROOT);
+        if (!GREEN.equals(minStatus) && !YELLOW.equals(minStatus)) {
+            LOG.severe("Minimum status of " + prefix + " is invalid (" + minStatus + "). Using the default minimum " +
+                    "status: " + YELLOW + ".");
+            minStatus = YELLOW;
+        }
+
+        return new ElasticSearchClusterConfiguration(
+                configurationUtil.get(prefix + ".name").orElse(defaultName),
+                connectionUrls,
+                configurationUtil.getInteger(prefix + ".connect-timeout-ms")
+                        .orElse(HttpTarget.DEFAULT_CONNECT_TIMEOUT_MS),
+                configurationUtil.getInteger(prefix + ".read-timeout-ms").orElse(HttpTarget.DEFAULT_READ_TIMEOUT_MS),
+                configurationUtil.get(prefix + ".wait-for-status").orElse(null),
+                configurationUtil.get(prefix + ".timeout").orElse(null),
+                configurationUtil.getBoolean(prefix + ".local").orElse(false),
+                GREEN.equals(minStatus),
+                configurationUtil.getLong(prefix + ".max-unassigned-shards").orElse(-1L),
+                configurationUtil.getLong(prefix + ".degraded-unassigned-shards").orElse(-1L),
+                configurationUtil.getLong(prefix + ".max-relocating-shards").orElse(-1L),
+                configurationUtil.getLong(prefix + ".degraded-relocating-shards").orElse(-1L));
+    }
 
     @Override
     public HealthCheckResponse call() {
-        String connectionUrl = ConfigurationUtil.getInstance()
-                .get(name() + ".connection-url")
-                .orElse(DEFAULT_CLUSTER_HEALTH_URL);
+        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse
+                .named(ElasticSearchHealthCheck.class.getSimpleName())
+                .up();
+
+        TargetExecutor.map(clusters, parallelism, this::checkCluster)
+                .forEach(result -> result.applyTo(healthCheckResponseBuilder));
+
+        return healthCheckResponseBuilder.build();
+    }
+
+    /**
+     * Helper method for checking the cluster health of a cluster against its thresholds.
+     */
+    private TargetResult checkCluster(ElasticSearchClusterConfiguration cluster) {
+        String name = cluster.getName();
+        TargetResult result = new TargetResult();
+
+        ElasticSearchClusterHealth health = null;
+        for (String connectionUrl : cluster.getConnectionUrls()) {
+            try {
+                health = getClusterHealth(cluster, connectionUrl);
+                break;
+            } catch (Exception exception) {
+                LOG.log(Level.WARNING, "An exception occurred when trying to get Elasticsearch cluster status from " +
+                        connectionUrl + ".", exception);
+            }
+        }
+
+        if (health == null || health.getStatus() == null) {
+            LOG.severe("Could not get status of Elasticsearch cluster (" + name + ") from any of its nodes.");
+            return result.down(name);
+        }
+
+        result.withData(name + ".status", health.getStatus())
+                .withData(name + ".unassigned-shards", health.getUnassignedShards())
+                .withData(name + ".relocating-shards", health.getRelocatingShards())
+                .withData(name + ".initializing-shards", health.getInitializingShards());
+
+        boolean green = GREEN.equals(health.getStatus());
+        boolean yellow = YELLOW.equals(health.getStatus());
+
+        if ((!green && !yellow) || (!green && cluster.isGreenRequired()) ||
+                exceeds(health.getUnassignedShards(), cluster.getMaxUnassignedShards()) ||
+                exceeds(health.getRelocatingShards(), cluster.getMaxRelocatingShards())) {
+            LOG.severe(String.format("Elasticsearch cluster (%s) is not healthy: status %s, %d unassigned and %d " +
+                            "relocating shards.", name, health.getStatus(), health.getUnassignedShards(),
+                    health.getRelocatingShards()));
+            return result.down(name);
+        }
+
+        if (yellow || health.isTimedOut() ||
+                exceeds(health.getUnassignedShards(), cluster.getDegradedUnassignedShards()) ||
+                exceeds(health.getRelocatingShards(), cluster.getDegradedRelocatingShards())) {
+            return result.degraded(name);
+        }
+
+        return result.up(name);
+    }
+
+    private static boolean exceeds(long value, long threshold) {
+        return threshold >= 0 && value > threshold;
+    }
+
+    /**
+     * Requests the cluster health from a node. Responses with status 408 are accepted, since Elasticsearch responds
+     * with them when the cluster did not reach the awaited status within the timeout.
+     */
+    private ElasticSearchClusterHealth getClusterHealth(ElasticSearchClusterConfiguration cluster,
+                                                        String connectionUrl) throws IOException {
+        WebTarget webTarget = client.target(connectionUrl);
+        if (cluster.getWaitForStatus() != null) {
+            webTarget = webTarget.queryParam("wait_for_status", cluster.getWaitForStatus());
+        }
+        if (cluster.getTimeout() != null) {
+            webTarget = webTarget.queryParam("timeout", cluster.getTimeout());
+        }
+        if (cluster.isLocal()) {
+            webTarget = webTarget.queryParam("local", true);
+        }
 
-        WebTarget webTarget = CLIENT.target(connectionUrl);
         Response response = null;
         try {
-            response = webTarget.request().get();
-
-            if (response.getStatus() == 200) {
-                HashMap result = response.readEntity(new GenericType<LinkedHashMap>() {
-                });
-                Object status = result.get(STATUS);
+            response = webTarget.request()
+                    .property(ClientProperties.CONNECT_TIMEOUT, cluster.getConnectTimeout())
+                    .property(ClientProperties.READ_TIMEOUT, cluster.getReadTimeout())
+                    .get();
 
-                if (status != null && (GREEN.equals(status.toString()) || YELLOW.equals(status.toString()))) {
-                    return HealthCheckResponse.up(ElasticSearchHealthCheck.class.getSimpleName());
-                }
+            if (response.getStatus() != 200 && response.getStatus() != 408) {
+                throw new IOException("Elasticsearch responded with status " + response.getStatus() + ".");
             }
 
-            return HealthCheckResponse.down(ElasticSearchHealthCheck.class.getSimpleName());
-        } catch (Exception exception) {
-            LOG.log(Level.SEVERE, "An exception occurred when trying to get Elasticsearch cluster status.",
-                    exception);
-            return HealthCheckResponse.down(ElasticSearchHealthCheck.class.getSimpleName());
+            try (InputStream inputStream = response.readEntity(InputStream.class)) {
+                return parseClusterHealth(inputStream);
+            }
         } finally {
             if (response != null) {
                 response.close();
@@ -89,6 +248,53 @@ public class ElasticSearchHealthCheck extends KumuluzHealthCheck implements Heal
         }
     }
 
+    /**
+     * Reads the status and shard counts from the cluster health response. Other fields are skipped without being
+     * parsed and reading stops once all fields are read.
+     */
+    static ElasticSearchClusterHealth parseClusterHealth(InputStream inputStream) throws IOException {
+        ElasticSearchClusterHealth health = new ElasticSearchClusterHealth();
+
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Cluster health response is not a JSON object.");
+            }
+
+            int fields = 0;
+            while (fields < HEALTH_FIELDS && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "status":
+                        health.status = parser.getValueAsString();
+                        fields++;
+                        break;
+                    case "timed_out":
+                        health.timedOut = parser.getValueAsBoolean();
+                        fields++;
+                        break;
+                    case "unassigned_shards":
+                        health.unassignedShards = parser.getValueAsLong();
+                        fields++;
+                        break;
+                    case "relocating_shards":
+                        health.relocatingShards = parser.getValueAsLong();
+                        fields++;
+                        break;
+                    case "initializing_shards":
+                        health.initializingShards = parser.getValueAsLong();
+                        fields++;
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+
+        return health;
+    }
+
     @Override
     public String name() {
         return kumuluzBaseHealthConfigPath + "elastic-search-health-check";
@@ -99,3 +305,114 @@ public class ElasticSearchHealthCheck extends KumuluzHealthCheck implements Heal
         return true;
     }
 }
+
+class ElasticSearchClusterHealth {
+
+    String status;
+    boolean timedOut;
+    long unassignedShards;
+    long relocatingShards;
+    long initializingShards;
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public long getUnassignedShards() {
+        return unassignedShards;
+    }
+
+    public long getRelocatingShards() {
+        return relocatingShards;
+    }
+
+    public long getInitializingShards() {
+        return initializingShards;
+    }
+}
+
+class ElasticSearchClusterConfiguration {
+
+    private final String name;
+    private final List<String> connectionUrls;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final String waitForStatus;
+    private final String timeout;
+    private final boolean local;
+    private final boolean greenRequired;
+    private final long maxUnassignedShards;
+    private final long degradedUnassignedShards;
+    private final long maxRelocatingShards;
+    private final long degradedRelocatingShards;
+
+    ElasticSearchClusterConfiguration(String name, List<String> connectionUrls, int connectTimeout, int readTimeout,
+                                      String waitForStatus, String timeout, boolean local, boolean greenRequired,
+                                      long maxUnassignedShards, long degradedUnassignedShards,
+                                      long maxRelocatingShards, long degradedRelocatingShards) {
+        this.name = name;
+        this.connectionUrls = Collections.unmodifiableList(new ArrayList<>(connectionUrls));
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.waitForStatus = waitForStatus;
+        this.timeout = timeout;
+        this.local = local;
+        this.greenRequired = greenRequired;
+        this.maxUnassignedShards = maxUnassignedShards;
+        this.degradedUnassignedShards = degradedUnassignedShards;
+        this.maxRelocatingShards = maxRelocatingShards;
+        this.degradedRelocatingShards = degradedRelocatingShards;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getConnectionUrls() {
+        return connectionUrls;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public String getWaitForStatus() {
+        return waitForStatus;
+    }
+
+    public String getTimeout() {
+        return timeout;
+    }
+
+    public boolean isLocal() {
+        return local;
+    }
+
+    public boolean isGreenRequired() {
+        return greenRequired;
+    }
+
+    public long getMaxUnassignedShards() {
+        return maxUnassignedShards;
+    }
+
+    public long getDegradedUnassignedShards() {
+        return degradedUnassignedShards;
+    }
+
+    public long getMaxRelocatingShards() {
+        return maxRelocatingShards;
+    }
+
+    public long getDegradedRelocatingShards() {
+        return degradedRelocatingShards;
+    }
+}
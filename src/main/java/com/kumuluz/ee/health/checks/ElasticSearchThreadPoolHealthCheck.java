@@ -0,0 +1,460 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.glassfish.jersey.client.ClientProperties;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Elasticsearch thread pool health check. Polls the queue and rejection counters of the selected thread pools on all
+ * nodes and reports the pools as degraded or down when their queues fill up or they start rejecting requests.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+@ApplicationScoped
+@BuiltInHealthCheck
+public class ElasticSearchThreadPoolHealthCheck extends KumuluzHealthCheck implements HealthCheck {
+
+    private static final Logger LOG = Logger.getLogger(ElasticSearchThreadPoolHealthCheck.class.getName());
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Default elastic search node url
+    private static final String DEFAULT_NODE_URL = "http://localhost:9200";
+
+    // Default checked thread pools
+    private static final String DEFAULT_THREAD_POOLS = "write,search";
+
+    // Default queue fill thresholds in percent
+    private static final double DEFAULT_MAX_QUEUE_FILL_PERCENT = 90;
+    private static final double DEFAULT_DEGRADED_QUEUE_FILL_PERCENT = 50;
+
+    // Columns of the thread pool cat API read by the health check
+    private static final String COLUMNS = "node_name,name,queue,queue_size,rejected";
+
+    private volatile List<ElasticSearchThreadPools> clusters = Collections.emptyList();
+    private volatile int parallelism;
+
+    private Client client;
+
+    @PostConstruct
+    public void init() {
+        client = ClientBuilder.newClient();
+
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private void loadConfiguration() {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        List<ElasticSearchThreadPools> threadPools = new ArrayList<>();
+
+        Optional<Integer> listSize = configurationUtil.getListSize(name());
+        if (listSize.isPresent()) {
+            for (int i = 0; i < listSize.get(); i++) {
+                threadPools.add(new ElasticSearchThreadPools(getConfiguration(configurationUtil,
+                        name() + "[" + i + "]", "elasticsearch-" + i)));
+            }
+        } else {
+            threadPools.add(new ElasticSearchThreadPools(getConfiguration(configurationUtil, name(),
+                    "elasticsearch")));
+        }
+
+        clusters = Collections.unmodifiableList(threadPools);
+        parallelism = getParallelism();
+    }
+
+    private ElasticSearchThreadPoolConfiguration getConfiguration(ConfigurationUtil configurationUtil, String prefix,
+                                                                  String defaultName) {
+        return new ElasticSearchThreadPoolConfiguration(
+                configurationUtil.get(prefix + ".name").orElse(defaultName),
+                split(configurationUtil.get(prefix + ".connection-url").orElse(DEFAULT_NODE_URL)),
+                split(configurationUtil.get(prefix + ".thread-pools").orElse(DEFAULT_THREAD_POOLS)),
+                configurationUtil.getInteger(prefix + ".connect-timeout-ms")
+                        .orElse(HttpTarget.DEFAULT_CONNECT_TIMEOUT_MS),
+                configurationUtil.getInteger(prefix + ".read-timeout-ms").orElse(HttpTarget.DEFAULT_READ_TIMEOUT_MS),
+                configurationUtil.getDouble(prefix + ".max-queue-fill-percent")
+                        .orElse(DEFAULT_MAX_QUEUE_FILL_PERCENT),
+                configurationUtil.getDouble(prefix + ".degraded-queue-fill-percent")
+                        .orElse(DEFAULT_DEGRADED_QUEUE_FILL_PERCENT),
+                configurationUtil.getDouble(prefix + ".max-rejections-per-min").orElse(-1.0),
+                configurationUtil.getDouble(prefix + ".degraded-rejections-per-min").orElse(0.0));
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse
+                .named(ElasticSearchThreadPoolHealthCheck.class.getSimpleName())
+                .up();
+
+        TargetExecutor.map(clusters, parallelism, this::checkThreadPools)
+                .forEach(result -> result.applyTo(healthCheckResponseBuilder));
+
+        return healthCheckResponseBuilder.build();
+    }
+
+    /**
+     * Helper method for checking the thread pools of a cluster. Nodes are tried in order until one of them responds.
+     */
+    private TargetResult checkThreadPools(ElasticSearchThreadPools threadPools) {
+        ElasticSearchThreadPoolConfiguration configuration = threadPools.getConfiguration();
+
+        for (String connectionUrl : configuration.getConnectionUrls()) {
+            try {
+                return threadPools.evaluate(getThreadPoolStats(configuration, connectionUrl), System.nanoTime());
+            } catch (Exception exception) {
+                LOG.log(Level.WARNING, "An exception occurred when trying to get Elasticsearch thread pools from " +
+                        connectionUrl + ".", exception);
+            }
+        }
+
+        LOG.severe("Could not get thread pools of Elasticsearch cluster (" + configuration.getName() + ") from any " +
+                "of its nodes.");
+
+        TargetResult result = new TargetResult();
+        configuration.getThreadPools().forEach(pool -> result.down(configuration.getName() + "." + pool));
+        return result;
+    }
+
+    private List<ElasticSearchThreadPoolStats> getThreadPoolStats(ElasticSearchThreadPoolConfiguration configuration,
+                                                                  String connectionUrl) throws IOException {
+        Response response = null;
+        try {
+            response = client.target(connectionUrl)
+                    .path("_cat/thread_pool/" + String.join(",", configuration.getThreadPools()))
+                    .queryParam("format", "json")
+                    .queryParam("h", COLUMNS)
+                    .request()
+                    .property(ClientProperties.CONNECT_TIMEOUT, configuration.getConnectTimeout())
+                    .property(ClientProperties.READ_TIMEOUT, configuration.getReadTimeout())
+                    .get();
+
+            if (response.getStatus() != 200) {
+                throw new IOException("Elasticsearch responded with status " + response.getStatus() + ".");
+            }
+
+            try (InputStream inputStream = response.readEntity(InputStream.class)) {
+                return parseThreadPoolStats(inputStream);
+            }
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the rows of the thread pool cat API in the JSON format. Values of unknown columns are skipped.
+     */
+    static List<ElasticSearchThreadPoolStats> parseThreadPoolStats(InputStream inputStream) throws IOException {
+        List<ElasticSearchThreadPoolStats> stats = new ArrayList<>();
+
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Thread pool response is not a JSON array.");
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String node = null;
+                String pool = null;
+                long queue = 0;
+                long queueSize = -1;
+                long rejected = 0;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+
+                    switch (field) {
+                        case "node_name":
+                            node = parser.getValueAsString();
+                            break;
+                        case "name":
+                            pool = parser.getValueAsString();
+                            break;
+                        case "queue":
+                            queue = parser.getValueAsLong();
+                            break;
+                        case "queue_size":
+                            queueSize = parser.getValueAsLong(-1);
+                            break;
+                        case "rejected":
+                            rejected = parser.getValueAsLong();
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+
+                stats.add(new ElasticSearchThreadPoolStats(node, pool, queue, queueSize, rejected));
+            }
+        }
+
+        return stats;
+    }
+
+    @Override
+    public String name() {
+        return kumuluzBaseHealthConfigPath + "elastic-search-thread-pool-health-check";
+    }
+
+    @Override
+    public boolean initSuccess() {
+        return true;
+    }
+}
+
+/**
+ * Thread pools of a cluster with the rejection counters of the previous check, which are needed for the rejection
+ * rate.
+ */
+class ElasticSearchThreadPools {
+
+    private static final Logger LOG = Logger.getLogger(ElasticSearchThreadPools.class.getName());
+
+    private final ElasticSearchThreadPoolConfiguration configuration;
+
+    private Map<String, Long> previousRejected = Collections.emptyMap();
+    private long previousTime;
+
+    ElasticSearchThreadPools(ElasticSearchThreadPoolConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    ElasticSearchThreadPoolConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Evaluates the queue fill ratio of the fullest node and the rejection rate of all nodes for each thread pool.
+     *
+     * @param stats thread pool statistics of all nodes
+     * @param time  time of the statistics in nanoseconds
+     * @return result of the thread pools
+     */
+    synchronized TargetResult evaluate(List<ElasticSearchThreadPoolStats> stats, long time) {
+        String name = configuration.getName();
+        TargetResult result = new TargetResult();
+
+        double minutes = previousRejected.isEmpty() ? 0 : (time - previousTime) / (double) TimeUnit.MINUTES.toNanos(1);
+
+        Map<String, Double> queueFill = new HashMap<>();
+        Map<String, Long> rejections = new HashMap<>();
+        Map<String, Long> rejected = new LinkedHashMap<>();
+
+        for (ElasticSearchThreadPoolStats stat : stats) {
+            String key = stat.getNode() + "/" + stat.getPool();
+            rejected.put(key, stat.getRejected());
+
+            if (stat.getQueueSize() > 0) {
+                queueFill.merge(stat.getPool(), 100.0 * stat.getQueue() / stat.getQueueSize(), Math::max);
+            }
+
+            Long previous = previousRejected.get(key);
+            if (previous != null) {
+                // counters are reset when a node restarts
+                long delta = stat.getRejected() >= previous ? stat.getRejected() - previous : stat.getRejected();
+                rejections.merge(stat.getPool(), delta, Long::sum);
+            }
+        }
+
+        previousRejected = rejected;
+        previousTime = time;
+
+        for (String pool : configuration.getThreadPools()) {
+            String key = name + "." + pool;
+            double fill = queueFill.getOrDefault(pool, 0.0);
+            Long poolRejections = rejections.get(pool);
+            double rate = poolRejections != null && minutes > 0 ? poolRejections / minutes : -1;
+
+            result.withData(key + ".queue-fill-percent", Math.round(fill));
+            if (rate >= 0) {
+                result.withData(key + ".rejections-per-min", Math.round(rate));
+            }
+
+            if (exceeds(fill, configuration.getMaxQueueFillPercent()) ||
+                    (rate >= 0 && exceeds(rate, configuration.getMaxRejectionsPerMin()))) {
+                LOG.severe(String.format("Thread pool %s of Elasticsearch cluster (%s) is saturated: queue %.0f %% " +
+                        "full, %.1f rejections per minute.", pool, name, fill, Math.max(rate, 0)));
+                result.down(key);
+            } else if (exceeds(fill, configuration.getDegradedQueueFillPercent()) ||
+                    (rate >= 0 && exceeds(rate, configuration.getDegradedRejectionsPerMin()))) {
+                LOG.warning(String.format("Thread pool %s of Elasticsearch cluster (%s) is pushing back: queue " +
+                        "%.0f %% full, %.1f rejections per minute.", pool, name, fill, Math.max(rate, 0)));
+                result.degraded(key);
+            } else {
+                result.up(key);
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean exceeds(double value, double threshold) {
+        return threshold >= 0 && value > threshold;
+    }
+}
+
+class ElasticSearchThreadPoolStats {
+
+    private final String node;
+    private final String pool;
+    private final long queue;
+    private final long queueSize;
+    private final long rejected;
+
+    ElasticSearchThreadPoolStats(String node, String pool, long queue, long queueSize, long rejected) {
+        this.node = node;
+        this.pool = pool;
+        this.queue = queue;
+        this.queueSize = queueSize;
+        this.rejected = rejected;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    public long getQueue() {
+        return queue;
+    }
+
+    public long getQueueSize() {
+        return queueSize;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+}
+
+class ElasticSearchThreadPoolConfiguration {
+
+    private final String name;
+    private final List<String> connectionUrls;
+    private final List<String> threadPools;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final double maxQueueFillPercent;
+    private final double degradedQueueFillPercent;
+    private final double maxRejectionsPerMin;
+    private final double degradedRejectionsPerMin;
+
+    ElasticSearchThreadPoolConfiguration(String name, List<String> connectionUrls, List<String> threadPools,
+                                         int connectTimeout, int readTimeout, double maxQueueFillPercent,
+                                         double degradedQueueFillPercent, double maxRejectionsPerMin,
+                                         double degradedRejectionsPerMin) {
+        this.name = name;
+        this.connectionUrls = Collections.unmodifiableList(new ArrayList<>(connectionUrls));
+        this.threadPools = Collections.unmodifiableList(new ArrayList<>(threadPools));
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.maxQueueFillPercent = maxQueueFillPercent;
+        this.degradedQueueFillPercent = degradedQueueFillPercent;
+        this.maxRejectionsPerMin = maxRejectionsPerMin;
+        this.degradedRejectionsPerMin = degradedRejectionsPerMin;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getConnectionUrls() {
+        return connectionUrls;
+    }
+
+    public List<String> getThreadPools() {
+        return threadPools;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public double getMaxQueueFillPercent() {
+        return maxQueueFillPercent;
+    }
+
+    public double getDegradedQueueFillPercent() {
+        return degradedQueueFillPercent;
+    }
+
+    public double getMaxRejectionsPerMin() {
+        return maxRejectionsPerMin;
+    }
+
+    public double getDegradedRejectionsPerMin() {
+        return degradedRejectionsPerMin;
+    }
+}
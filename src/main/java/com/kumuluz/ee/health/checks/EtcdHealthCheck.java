@@ -20,17 +20,18 @@
  */
 package com.kumuluz.ee.health.checks;
 
-import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
-import java.util.Optional;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -48,21 +49,39 @@ public class EtcdHealthCheck extends KumuluzHealthCheck implements HealthCheck {
 
     private static final String HEALTHY = "{\"health\":\"true\"}";
 
+    private volatile List<HttpTarget> targets;
+    private volatile int parallelism;
+
+    private Client client;
+
+    @PostConstruct
+    public void init() {
+        client = ClientBuilder.newClient();
+
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private void loadConfiguration() {
+        targets = HttpTarget.load(name());
+        parallelism = getParallelism();
+    }
+
     @Override
     public HealthCheckResponse call() {
         HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse.named(EtcdHealthCheck.class.getSimpleName()).up();
-        Optional<Integer> connectionUrls = ConfigurationUtil.getInstance().getListSize(name());
 
-        if (connectionUrls.isPresent()) {
-            for (int i = 0; i < connectionUrls.get(); i++) {
-                String connectionUrl =
-                        ConfigurationUtil.getInstance().get(name() + "[" + i + "].connection-url").orElse("");
-                checkEtcdStatus(connectionUrl, healthCheckResponseBuilder);
-            }
-        } else {
-            String connectionUrl = ConfigurationUtil.getInstance().get(name() + ".connection-url").orElse("");
-            checkEtcdStatus(connectionUrl, healthCheckResponseBuilder);
-        }
+        TargetExecutor.map(targets, parallelism, this::checkEtcdStatus)
+                .forEach(result -> result.applyTo(healthCheckResponseBuilder));
 
         return healthCheckResponseBuilder.build();
     }
@@ -70,19 +89,18 @@ public class EtcdHealthCheck extends KumuluzHealthCheck implements HealthCheck {
     /**
      * Helper method for checking if etcd is online.
      */
-    private void checkEtcdStatus(String connectionUrl, HealthCheckResponseBuilder healthCheckResponseBuilder) {
-        WebTarget webTarget = ClientBuilder.newClient().target(connectionUrl);
+    private TargetResult checkEtcdStatus(HttpTarget target) {
+        String connectionUrl = target.getConnectionUrl();
         Response response = null;
 
         try {
-            response = webTarget.request().get();
+            response = target.request(client).get();
 
             if (response.getStatus() == 200) {
                 String result = response.readEntity(String.class).replaceAll("\\s+", "");
 
                 if (result != null && result.equals(HEALTHY)) {
-                    healthCheckResponseBuilder.withData(connectionUrl, HealthCheckResponse.Status.UP.toString());
-                    return;
+                    return new TargetResult().up(connectionUrl);
                 }
             }
         } catch (Exception exception) {
@@ -93,8 +111,7 @@ public class EtcdHealthCheck extends KumuluzHealthCheck implements HealthCheck {
             }
         }
 
-        healthCheckResponseBuilder.withData(connectionUrl, HealthCheckResponse.Status.DOWN.toString());
-        healthCheckResponseBuilder.down();
+        return new TargetResult().down(connectionUrl);
     }
 
     @Override
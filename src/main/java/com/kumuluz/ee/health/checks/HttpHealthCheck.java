@@ -26,11 +26,17 @@ import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,42 +52,89 @@ public class HttpHealthCheck extends KumuluzHealthCheck implements HealthCheck {
 
     private static final Logger LOG = Logger.getLogger(HttpHealthCheck.class.getName());
 
+    // Engine sending requests with the shared JAX-RS client
+    private static final String ENGINE_JAX_RS = "jax-rs";
+
+    // Engine sending requests with java.net.http.HttpClient
+    private static final String ENGINE_JAVA_NET_HTTP = "java-net-http";
+
+    private volatile List<HttpTarget> targets;
+    private volatile int parallelism;
+    private volatile boolean javaNetHttpEngine;
+
+    private Client client;
+    private JavaHttpClientEngine javaHttpClientEngine;
+
+    @PostConstruct
+    public void init() {
+        client = ClientBuilder.newClient();
+        javaHttpClientEngine = new JavaHttpClientEngine();
+
+        loadConfiguration();
+        // the engine is configured with a sibling key of the health check configuration
+        subscribeToConfigurationChanges(this::loadConfiguration, name() + "-engine");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        if (client != null) {
+            client.close();
+        }
+        if (javaHttpClientEngine != null) {
+            javaHttpClientEngine.close();
+        }
+    }
+
+    private void loadConfiguration() {
+        targets = HttpTarget.load(name());
+        parallelism = getParallelism();
+
+        String engine = ConfigurationUtil.getInstance().get(name() + "-engine").orElse(ENGINE_JAX_RS);
+        if (!ENGINE_JAX_RS.equals(engine) && !ENGINE_JAVA_NET_HTTP.equals(engine)) {
+            LOG.severe("Engine of the health check " + name() + " is invalid (" + engine + "). Using the default " +
+                    "engine: " + ENGINE_JAX_RS + ".");
+        }
+        javaNetHttpEngine = ENGINE_JAVA_NET_HTTP.equals(engine);
+    }
+
     @Override
     public HealthCheckResponse call() {
         HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse.named(HttpHealthCheck.class
                 .getSimpleName()).up();
-        Optional<Integer> connectionUrls = ConfigurationUtil.getInstance().getListSize(name());
 
-        if (connectionUrls.isPresent()) {
-            for (int i = 0; i < connectionUrls.get(); i++) {
-                String connectionUrl = ConfigurationUtil.getInstance().get(name() + "[" + i + "].connection-url").orElse("");
-                checkHttpStatus(connectionUrl, healthCheckResponseBuilder);
-            }
-        } else {
-            String connectionUrl = ConfigurationUtil.getInstance().get(name() + ".connection-url").orElse("");
-            checkHttpStatus(connectionUrl, healthCheckResponseBuilder);
-        }
+        List<TargetResult> results = javaNetHttpEngine
+                ? javaHttpClientEngine.check(targets, parallelism)
+                : TargetExecutor.map(targets, parallelism, this::checkHttpStatus);
+
+        results.forEach(result -> result.applyTo(healthCheckResponseBuilder));
 
         return healthCheckResponseBuilder.build();
     }
 
     /**
-     * Helper method for checking if url is accessible and status code is >= 200 and < 300.
+     * Helper method for checking if url is accessible, status code is one of the expected statuses and the response is
+     * fast enough.
      *
-     * @param connectionUrl
-     * @return
+     * @param target target of the health check
+     * @return result of the target
      */
-    private void checkHttpStatus(String connectionUrl, HealthCheckResponseBuilder healthCheckResponseBuilder) {
-        WebTarget webTarget = ClientBuilder.newClient().target(connectionUrl);
+    private TargetResult checkHttpStatus(HttpTarget target) {
+        String connectionUrl = target.getConnectionUrl();
         Response response = null;
 
         try {
-            response = webTarget.request().head();
+            long start = System.nanoTime();
+            response = target.request(client).method(target.getMethod());
 
-            if (response.getStatus() >= 200 && response.getStatus() < 300) {
-                healthCheckResponseBuilder.withData(connectionUrl, HealthCheckResponse.Status.UP.toString());
-                return;
+            byte[] body = null;
+            if (target.isBodyMatched() && response.hasEntity()) {
+                body = readBody(response.readEntity(InputStream.class), target.getBodyMaxBytes());
             }
+
+            return target.evaluate(response.getStatus(), body,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
         } catch (Exception exception) {
             LOG.log(Level.SEVERE, "An exception occurred when trying to connect over HTTP.", exception);
         } finally {
@@ -89,8 +142,24 @@ public class HttpHealthCheck extends KumuluzHealthCheck implements HealthCheck {
                 response.close();
             }
         }
-        healthCheckResponseBuilder.withData(connectionUrl, HealthCheckResponse.Status.DOWN.toString());
-        healthCheckResponseBuilder.down();
+        return new TargetResult().down(connectionUrl);
+    }
+
+    /**
+     * Reads at most the given number of bytes of the response body.
+     */
+    private static byte[] readBody(InputStream inputStream, int maxBytes) throws IOException {
+        try (InputStream stream = inputStream) {
+            byte[] buffer = new byte[maxBytes];
+            int length = 0;
+            int read;
+
+            while (length < maxBytes && (read = stream.read(buffer, length, maxBytes - length)) != -1) {
+                length += read;
+            }
+
+            return Arrays.copyOf(buffer, length);
+        }
     }
 
     @Override
@@ -0,0 +1,258 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import org.glassfish.jersey.client.ClientProperties;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Invocation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Target of an HTTP based health check with its connection and read timeouts. The request method, the expected
+ * response statuses, the response time thresholds and the expected body are used by {@link HttpHealthCheck}.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class HttpTarget {
+
+    private static final Logger LOG = Logger.getLogger(HttpTarget.class.getName());
+
+    // Default connect timeout in milliseconds
+    static final int DEFAULT_CONNECT_TIMEOUT_MS = 2000;
+
+    // Default read timeout in milliseconds
+    static final int DEFAULT_READ_TIMEOUT_MS = 5000;
+
+    // Default request method
+    static final String DEFAULT_METHOD = "HEAD";
+
+    // Default expected response statuses
+    static final String DEFAULT_EXPECTED_STATUS = "200-299";
+
+    // Default maximum number of bytes of the response body read when matching the body
+    static final int DEFAULT_BODY_MAX_BYTES = 1024;
+
+    private final String connectionUrl;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final String method;
+    private final BitSet expectedStatuses;
+    private final long maxResponseTime;
+    private final long degradedResponseTime;
+    private final String bodyContains;
+    private final int bodyMaxBytes;
+
+    HttpTarget(String connectionUrl, int connectTimeout, int readTimeout, String method, BitSet expectedStatuses) {
+        this(connectionUrl, connectTimeout, readTimeout, method, expectedStatuses, 0, 0, null,
+                DEFAULT_BODY_MAX_BYTES);
+    }
+
+    HttpTarget(String connectionUrl, int connectTimeout, int readTimeout, String method, BitSet expectedStatuses,
+               long maxResponseTime, long degradedResponseTime, String bodyContains, int bodyMaxBytes) {
+        this.connectionUrl = connectionUrl;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.method = method;
+        this.expectedStatuses = expectedStatuses;
+        this.maxResponseTime = maxResponseTime;
+        this.degradedResponseTime = degradedResponseTime;
+        this.bodyContains = bodyContains;
+        this.bodyMaxBytes = bodyMaxBytes;
+    }
+
+    /**
+     * Reads targets configured under the given key, either as a list or as a single target.
+     *
+     * @param configurationKey configuration key of the health check
+     * @return unmodifiable list of targets
+     */
+    static List<HttpTarget> load(String configurationKey) {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        List<HttpTarget> targets = new ArrayList<>();
+
+        Optional<Integer> listSize = configurationUtil.getListSize(configurationKey);
+        if (listSize.isPresent()) {
+            for (int i = 0; i < listSize.get(); i++) {
+                targets.add(load(configurationUtil, configurationKey + "[" + i + "]"));
+            }
+        } else {
+            targets.add(load(configurationUtil, configurationKey));
+        }
+
+        return Collections.unmodifiableList(targets);
+    }
+
+    private static HttpTarget load(ConfigurationUtil configurationUtil, String prefix) {
+        String bodyContains = configurationUtil.get(prefix + ".body-contains").orElse(null);
+
+        // the body is only available with GET requests
+        String defaultMethod = bodyContains == null ? DEFAULT_METHOD : "GET";
+
+        return new HttpTarget(
+                configurationUtil.get(prefix + ".connection-url").orElse(""),
+                configurationUtil.getInteger(prefix + ".connect-timeout-ms").orElse(DEFAULT_CONNECT_TIMEOUT_MS),
+                configurationUtil.getInteger(prefix + ".read-timeout-ms").orElse(DEFAULT_READ_TIMEOUT_MS),
+                configurationUtil.get(prefix + ".method").orElse(defaultMethod).toUpperCase(Locale.ROOT),
+                getExpectedStatuses(configurationUtil, prefix),
+                configurationUtil.getLong(prefix + ".max-response-time-ms").orElse(0L),
+                configurationUtil.getLong(prefix + ".degraded-response-time-ms").orElse(0L),
+                bodyContains,
+                configurationUtil.getInteger(prefix + ".body-max-bytes").orElse(DEFAULT_BODY_MAX_BYTES));
+    }
+
+    private static BitSet getExpectedStatuses(ConfigurationUtil configurationUtil, String prefix) {
+        String expectedStatus = configurationUtil.get(prefix + ".expected-status").orElse(DEFAULT_EXPECTED_STATUS);
+
+        try {
+            return parseStatuses(expectedStatus);
+        } catch (IllegalArgumentException e) {
+            LOG.severe("Expected status of " + prefix + " is invalid (" + expectedStatus + "). Using the default " +
+                    "expected status: " + DEFAULT_EXPECTED_STATUS + ".");
+            return parseStatuses(DEFAULT_EXPECTED_STATUS);
+        }
+    }
+
+    /**
+     * Parses a comma separated list of statuses, status ranges and status classes, e.g. {@code 200-299,301,4xx}.
+     */
+    static BitSet parseStatuses(String statuses) {
+        BitSet expectedStatuses = new BitSet(600);
+
+        for (String status : statuses.split(",")) {
+            status = status.trim().toLowerCase(Locale.ROOT);
+
+            if (status.isEmpty()) {
+                continue;
+            }
+
+            try {
+                if (status.endsWith("xx") && status.length() == 3) {
+                    int statusClass = Integer.parseInt(status.substring(0, 1)) * 100;
+                    expectedStatuses.set(statusClass, statusClass + 100);
+                } else if (status.contains("-")) {
+                    String[] range = status.split("-", 2);
+                    expectedStatuses.set(Integer.parseInt(range[0].trim()), Integer.parseInt(range[1].trim()) + 1);
+                } else {
+                    expectedStatuses.set(Integer.parseInt(status));
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid expected status: " + status, e);
+            }
+        }
+
+        return expectedStatuses;
+    }
+
+    /**
+     * @param status response status
+     * @return true if the status is one of the expected statuses
+     */
+    boolean isExpectedStatus(int status) {
+        return status >= 0 && expectedStatuses.get(status);
+    }
+
+    /**
+     * @return true if the response body has to be read
+     */
+    boolean isBodyMatched() {
+        return bodyContains != null;
+    }
+
+    /**
+     * Evaluates a response of the target.
+     *
+     * @param status  response status
+     * @param body    first {@link #getBodyMaxBytes()} bytes of the response body or null if the body was not read
+     * @param latency response time in milliseconds
+     * @return result of the target
+     */
+    TargetResult evaluate(int status, byte[] body, long latency) {
+        TargetResult result = new TargetResult().withData(connectionUrl + ".latency-ms", latency);
+
+        if (!isExpectedStatus(status)) {
+            LOG.severe(String.format("Unexpected status %d of %s.", status, connectionUrl));
+            return result.down(connectionUrl);
+        }
+
+        if (bodyContains != null &&
+                (body == null || !new String(body, StandardCharsets.UTF_8).contains(bodyContains))) {
+            LOG.severe(String.format("Response body of %s does not contain the expected content.", connectionUrl));
+            return result.down(connectionUrl);
+        }
+
+        if (maxResponseTime > 0 && latency > maxResponseTime) {
+            LOG.severe(String.format("Response time of %s is %d ms, which exceeds the maximum of %d ms.",
+                    connectionUrl, latency, maxResponseTime));
+            return result.down(connectionUrl);
+        }
+
+        if (degradedResponseTime > 0 && latency > degradedResponseTime) {
+            LOG.warning(String.format("Response time of %s is %d ms, which exceeds the degraded threshold of %d ms.",
+                    connectionUrl, latency, degradedResponseTime));
+            return result.degraded(connectionUrl);
+        }
+
+        return result.up(connectionUrl);
+    }
+
+    /**
+     * Builds a request for the target with the timeouts of the target.
+     *
+     * @param client shared client
+     * @return request builder
+     */
+    Invocation.Builder request(Client client) {
+        return client.target(connectionUrl)
+                .request()
+                .property(ClientProperties.CONNECT_TIMEOUT, connectTimeout)
+                .property(ClientProperties.READ_TIMEOUT, readTimeout);
+    }
+
+    public String getConnectionUrl() {
+        return connectionUrl;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public int getBodyMaxBytes() {
+        return bodyMaxBytes;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Engine of {@link HttpHealthCheck} based on {@link HttpClient}. Requests to targets are sent asynchronously over
+ * shared clients, which negotiate HTTP/2 and multiplex requests to the same host over a single connection.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class JavaHttpClientEngine {
+
+    private static final Logger LOG = Logger.getLogger(JavaHttpClientEngine.class.getName());
+
+    // clients by connect timeout, since the connect timeout can only be set on the client
+    private final ConcurrentMap<Integer, HttpClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Sends requests to the targets and waits for all responses. At most {@code parallelism} requests are sent at the
+     * same time, the same bound as {@link TargetExecutor} applies to the JAX-RS engine.
+     *
+     * @param targets     targets of the health check
+     * @param parallelism maximum number of requests sent at the same time
+     * @return results in the order of targets
+     */
+    List<TargetResult> check(List<HttpTarget> targets, int parallelism) {
+        int lanes = Math.max(1, parallelism);
+
+        List<CompletableFuture<TargetResult>> futures = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            HttpTarget target = targets.get(i);
+
+            // each lane sends its next request when the previous one completes, the futures never fail
+            futures.add(i < lanes ? check(target) : futures.get(i - lanes).thenCompose(previous -> check(target)));
+        }
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    private CompletableFuture<TargetResult> check(HttpTarget target) {
+        String connectionUrl = target.getConnectionUrl();
+
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(connectionUrl))
+                    .method(target.getMethod(), HttpRequest.BodyPublishers.noBody())
+                    .timeout(Duration.ofMillis(target.getReadTimeout()))
+                    .build();
+
+            HttpResponse.BodyHandler<byte[]> bodyHandler = target.isBodyMatched()
+                    ? responseInfo -> new BoundedBodySubscriber(target.getBodyMaxBytes())
+                    : responseInfo -> HttpResponse.BodySubscribers.mapping(
+                            HttpResponse.BodySubscribers.discarding(), discarded -> null);
+
+            long start = System.nanoTime();
+
+            return getClient(target.getConnectTimeout())
+                    .sendAsync(request, bodyHandler)
+                    .handle((response, throwable) -> {
+                        if (throwable != null) {
+                            LOG.log(Level.SEVERE, "An exception occurred when trying to connect over HTTP.",
+                                    throwable);
+                            return new TargetResult().down(connectionUrl);
+                        }
+
+                        return target.evaluate(response.statusCode(), response.body(),
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    });
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to connect over HTTP.", exception);
+            return CompletableFuture.completedFuture(new TargetResult().down(connectionUrl));
+        }
+    }
+
+    private HttpClient getClient(int connectTimeout) {
+        return clients.computeIfAbsent(connectTimeout, timeout -> HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(timeout))
+                .build());
+    }
+
+    /**
+     * Body subscriber, which keeps only the first bytes of the body and cancels the rest of the body.
+     */
+    private static class BoundedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final int maxBytes;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        private Flow.Subscription subscription;
+
+        BoundedBodySubscriber(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                int length = Math.min(buffer.remaining(), maxBytes - body.size());
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                body.write(bytes, 0, length);
+
+                if (body.size() >= maxBytes) {
+                    subscription.cancel();
+                    result.complete(body.toByteArray());
+                    return;
+                }
+            }
+
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(body.toByteArray());
+        }
+    }
+
+    /**
+     * Releases the clients. Connections are closed by the clients when they are no longer referenced.
+     */
+    void close() {
+        clients.clear();
+    }
+}
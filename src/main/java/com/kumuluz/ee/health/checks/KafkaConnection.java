@@ -0,0 +1,243 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsOptions;
+import org.apache.kafka.clients.admin.ListOffsetsOptions;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection to a Kafka cluster. Admin clients are shared between connections with the same client properties, are
+ * created on first use and are closed when the last connection using them is closed.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class KafkaConnection {
+
+    private static final Logger LOG = Logger.getLogger(KafkaConnection.class.getName());
+
+    static final String DEFAULT_BOOTSTRAP_SERVERS = "localhost:9092";
+    static final int DEFAULT_REQUEST_TIMEOUT_MS = 5000;
+
+    // Timeout of closing the admin client in milliseconds
+    private static final long CLOSE_TIMEOUT_MS = 1000;
+
+    private static final Map<Map<String, Object>, SharedClient> CLIENTS = new HashMap<>();
+
+    private final Map<String, Object> properties;
+    private final SharedClient sharedClient;
+
+    private boolean closed;
+
+    private KafkaConnection(Map<String, Object> properties, SharedClient sharedClient) {
+        this.properties = properties;
+        this.sharedClient = sharedClient;
+    }
+
+    /**
+     * Reads the admin client properties from the configuration subtree. Dashes in the keys are replaced with dots.
+     *
+     * @param configurationKey key of the configuration subtree
+     * @param nonClientKeys    keys of the subtree, which are not admin client properties
+     * @return admin client properties with defaults of the bootstrap servers and timeouts
+     */
+    static Map<String, Object> loadProperties(String configurationKey, Set<String> nonClientKeys) {
+        Map<String, Object> properties = new HashMap<>();
+
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+
+        configurationUtil.getMapKeys(configurationKey).ifPresent(keys -> {
+            keys.stream().filter(key -> !nonClientKeys.contains(key)).forEach(key -> {
+                configurationUtil.get(configurationKey + "." + key).ifPresent(value -> {
+                    String newKey = key.replace('-', '.');
+                    properties.put(newKey, value);
+                });
+            });
+        });
+
+        properties.putIfAbsent("bootstrap.servers", DEFAULT_BOOTSTRAP_SERVERS);
+        properties.putIfAbsent("request.timeout.ms", DEFAULT_REQUEST_TIMEOUT_MS);
+        properties.putIfAbsent("connections.max.idle.ms", getRequestTimeout(properties) * 3);
+
+        return properties;
+    }
+
+    /**
+     * Returns the request timeout of the admin client properties in milliseconds.
+     */
+    static int getRequestTimeout(Map<String, Object> properties) {
+        Object requestTimeoutMsObj = properties.get("request.timeout.ms");
+
+        return requestTimeoutMsObj instanceof String
+                ? Integer.parseInt((String) requestTimeoutMsObj)
+                : (Integer) requestTimeoutMsObj;
+    }
+
+    /**
+     * Opens a connection using a shared admin client. The admin client is not created until it is first used.
+     *
+     * @param properties admin client properties
+     * @return connection
+     */
+    static KafkaConnection open(Map<String, Object> properties) {
+        synchronized (CLIENTS) {
+            SharedClient sharedClient = CLIENTS.computeIfAbsent(properties, k -> new SharedClient());
+            sharedClient.references++;
+
+            return new KafkaConnection(properties, sharedClient);
+        }
+    }
+
+    /**
+     * Returns the admin client of the connection and creates it if necessary.
+     *
+     * @return admin client
+     */
+    AdminClient getAdminClient() {
+        synchronized (sharedClient) {
+            if (sharedClient.closed) {
+                throw new IllegalStateException("Connection to Kafka cluster is closed.");
+            }
+
+            if (sharedClient.client == null) {
+                sharedClient.client = AdminClient.create(properties);
+            }
+
+            return sharedClient.client;
+        }
+    }
+
+    /**
+     * Computes the lag of each partition of the consumer groups. Committed offsets of all groups are requested
+     * concurrently and the end offsets of all their partitions are requested with a single list offsets call, which the
+     * admin client batches per partition leader.
+     *
+     * @param groupIds consumer groups
+     * @param timeout  request timeout in milliseconds
+     * @return lag per partition ({@code <topic>-<partition>}) of each group or null for groups whose committed
+     * offsets could not be fetched
+     * @throws Exception if the end offsets could not be fetched
+     */
+    Map<String, Map<String, Long>> getConsumerGroupLag(Collection<String> groupIds, int timeout) throws Exception {
+        AdminClient adminClient = getAdminClient();
+
+        Map<String, KafkaFuture<Map<TopicPartition, OffsetAndMetadata>>> committedFutures = new LinkedHashMap<>();
+        for (String groupId : groupIds) {
+            committedFutures.put(groupId, adminClient.listConsumerGroupOffsets(groupId,
+                    new ListConsumerGroupOffsetsOptions().timeoutMs(timeout)).partitionsToOffsetAndMetadata());
+        }
+
+        Map<String, Map<TopicPartition, OffsetAndMetadata>> committedOffsets = new LinkedHashMap<>();
+        Map<TopicPartition, OffsetSpec> partitions = new HashMap<>();
+        for (Map.Entry<String, KafkaFuture<Map<TopicPartition, OffsetAndMetadata>>> entry :
+                committedFutures.entrySet()) {
+            try {
+                // timeout on get serves only as fallback, the timeout in options gives more descriptive exceptions
+                Map<TopicPartition, OffsetAndMetadata> offsets = entry.getValue()
+                        .get(timeout * 2L, TimeUnit.MILLISECONDS);
+
+                committedOffsets.put(entry.getKey(), offsets);
+                offsets.keySet().forEach(partition -> partitions.put(partition, OffsetSpec.latest()));
+            } catch (Exception e) {
+                LOG.log(Level.SEVERE, "Could not get committed offsets of Kafka consumer group (" + entry.getKey() +
+                        ").", e);
+                committedOffsets.put(entry.getKey(), null);
+            }
+        }
+
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets = partitions.isEmpty()
+                ? new HashMap<>()
+                : adminClient.listOffsets(partitions, new ListOffsetsOptions().timeoutMs(timeout)).all()
+                .get(timeout * 2L, TimeUnit.MILLISECONDS);
+
+        Map<String, Map<String, Long>> lag = new LinkedHashMap<>();
+        committedOffsets.forEach((groupId, offsets) -> {
+            if (offsets == null) {
+                lag.put(groupId, null);
+                return;
+            }
+
+            Map<String, Long> partitionLag = new LinkedHashMap<>();
+            offsets.forEach((partition, offset) -> {
+                ListOffsetsResult.ListOffsetsResultInfo endOffset = endOffsets.get(partition);
+
+                // partitions without a committed offset have no lag yet
+                if (offset != null && endOffset != null) {
+                    partitionLag.put(partition.toString(), Math.max(0, endOffset.offset() - offset.offset()));
+                }
+            });
+            lag.put(groupId, partitionLag);
+        });
+
+        return lag;
+    }
+
+    void close() {
+        synchronized (CLIENTS) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            if (--sharedClient.references == 0) {
+                CLIENTS.remove(properties);
+
+                synchronized (sharedClient) {
+                    sharedClient.closed = true;
+
+                    if (sharedClient.client != null) {
+                        try {
+                            sharedClient.client.close(Duration.ofMillis(CLOSE_TIMEOUT_MS));
+                        } catch (Exception exception) {
+                            LOG.log(Level.FINE, "An exception occurred when trying to close Kafka admin client.",
+                                    exception);
+                        }
+                        sharedClient.client = null;
+                    }
+                }
+            }
+        }
+    }
+
+    private static class SharedClient {
+
+        private AdminClient client;
+        private int references;
+        private boolean closed;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Kafka consumer lag health check. Compares the lag of the configured consumer groups, which is the difference between
+ * the end offsets and the committed offsets of their partitions, with the thresholds.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+@ApplicationScoped
+@BuiltInHealthCheck
+public class KafkaConsumerLagHealthCheck extends KumuluzHealthCheck implements HealthCheck {
+
+    private static final Logger LOG = Logger.getLogger(KafkaConsumerLagHealthCheck.class.getName());
+
+    // Default number of partitions with the largest lag included in the response data
+    private static final int DEFAULT_WORST_PARTITIONS = 3;
+
+    // Configuration keys of the health check, which are not passed to the admin client
+    private static final Set<String> NON_CLIENT_KEYS = new HashSet<>(Arrays.asList("type", "groups",
+            "worst-partitions"));
+
+    private volatile List<KafkaConsumerGroupConfiguration> groups = Collections.emptyList();
+    private volatile int worstPartitions;
+    private volatile int requestTimeout;
+    private volatile KafkaConnection connection;
+
+    @PostConstruct
+    public void init() {
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        KafkaConnection previousConnection = connection;
+        connection = null;
+        if (previousConnection != null) {
+            previousConnection.close();
+        }
+    }
+
+    /**
+     * Parses the configuration and replaces the connection. The previous connection is closed, the admin client is
+     * reused when the client properties did not change.
+     */
+    private void loadConfiguration() {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+
+        List<KafkaConsumerGroupConfiguration> groupConfigurations = new ArrayList<>();
+        Optional<Integer> listSize = configurationUtil.getListSize(name() + ".groups");
+        for (int i = 0; i < listSize.orElse(0); i++) {
+            String prefix = name() + ".groups[" + i + "]";
+            Optional<String> groupId = configurationUtil.get(prefix + ".name");
+
+            if (!groupId.isPresent()) {
+                LOG.severe("Consumer group " + prefix + " of the health check has no name and will not be checked.");
+                continue;
+            }
+
+            groupConfigurations.add(new KafkaConsumerGroupConfiguration(
+                    groupId.get(),
+                    configurationUtil.getLong(prefix + ".max-lag").orElse(0L),
+                    configurationUtil.getLong(prefix + ".degraded-lag").orElse(0L),
+                    configurationUtil.getLong(prefix + ".max-partition-lag").orElse(0L),
+                    configurationUtil.getLong(prefix + ".degraded-partition-lag").orElse(0L)));
+        }
+
+        Map<String, Object> properties = KafkaConnection.loadProperties(name(), NON_CLIENT_KEYS);
+
+        groups = Collections.unmodifiableList(groupConfigurations);
+        worstPartitions = configurationUtil.getInteger(name() + ".worst-partitions").orElse(DEFAULT_WORST_PARTITIONS);
+        requestTimeout = KafkaConnection.getRequestTimeout(properties);
+
+        KafkaConnection previousConnection = connection;
+        connection = KafkaConnection.open(properties);
+        if (previousConnection != null) {
+            previousConnection.close();
+        }
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse
+                .named(KafkaConsumerLagHealthCheck.class.getSimpleName())
+                .up();
+
+        List<KafkaConsumerGroupConfiguration> groups = this.groups;
+        KafkaConnection kafkaConnection = connection;
+        Map<String, Map<String, Long>> lag;
+
+        // connection is cleared when the health check is destroyed
+        if (kafkaConnection == null) {
+            groups.forEach(group -> healthCheckResponseBuilder.withData(group.getName(),
+                    HealthCheckResponse.Status.DOWN.toString()));
+            return healthCheckResponseBuilder.down().build();
+        }
+
+        try {
+            lag = kafkaConnection.getConsumerGroupLag(groups.stream()
+                    .map(KafkaConsumerGroupConfiguration::getName)
+                    .collect(Collectors.toList()), requestTimeout);
+        } catch (Exception e) {
+            LOG.log(Level.SEVERE, "Could not get end offsets from Kafka cluster.", e);
+            groups.forEach(group -> healthCheckResponseBuilder.withData(group.getName(),
+                    HealthCheckResponse.Status.DOWN.toString()));
+            return healthCheckResponseBuilder.down().build();
+        }
+
+        for (KafkaConsumerGroupConfiguration group : groups) {
+            checkGroup(group, lag.get(group.getName())).applyTo(healthCheckResponseBuilder);
+        }
+
+        return healthCheckResponseBuilder.build();
+    }
+
+    /**
+     * Helper method for comparing the lag of a consumer group with its thresholds.
+     */
+    private TargetResult checkGroup(KafkaConsumerGroupConfiguration group, Map<String, Long> partitionLag) {
+        String name = group.getName();
+        TargetResult result = new TargetResult();
+
+        if (partitionLag == null) {
+            return result.down(name);
+        }
+
+        long totalLag = 0;
+        long maxPartitionLag = 0;
+        for (long lag : partitionLag.values()) {
+            totalLag += lag;
+            maxPartitionLag = Math.max(maxPartitionLag, lag);
+        }
+
+        result.withData(name + ".lag", totalLag);
+        partitionLag.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(worstPartitions)
+                .forEach(entry -> result.withData(name + ".lag." + entry.getKey(), entry.getValue()));
+
+        if (exceeds(totalLag, group.getMaxLag()) || exceeds(maxPartitionLag, group.getMaxPartitionLag())) {
+            LOG.severe(String.format("Lag of Kafka consumer group (%s) exceeds the threshold: %d in total, %d on a " +
+                    "single partition.", name, totalLag, maxPartitionLag));
+            return result.down(name);
+        }
+
+        if (exceeds(totalLag, group.getDegradedLag()) ||
+                exceeds(maxPartitionLag, group.getDegradedPartitionLag())) {
+            LOG.warning(String.format("Lag of Kafka consumer group (%s) exceeds the degraded threshold: %d in total, " +
+                    "%d on a single partition.", name, totalLag, maxPartitionLag));
+            return result.degraded(name);
+        }
+
+        return result.up(name);
+    }
+
+    private static boolean exceeds(long value, long threshold) {
+        return threshold > 0 && value > threshold;
+    }
+
+    @Override
+    public String name() {
+        return kumuluzBaseHealthConfigPath + "kafka-consumer-lag-health-check";
+    }
+
+    @Override
+    public boolean initSuccess() {
+        try {
+            Class.forName("org.apache.kafka.clients.admin.AdminClient");
+            return true;
+        } catch (ClassNotFoundException e) {
+            LOG.severe("The required kafka-clients library appears to be missing or outdated.");
+            return false;
+        }
+    }
+}
+
+class KafkaConsumerGroupConfiguration {
+
+    private final String name;
+    private final long maxLag;
+    private final long degradedLag;
+    private final long maxPartitionLag;
+    private final long degradedPartitionLag;
+
+    KafkaConsumerGroupConfiguration(String name, long maxLag, long degradedLag, long maxPartitionLag,
+                                    long degradedPartitionLag) {
+        this.name = name;
+        this.maxLag = maxLag;
+        this.degradedLag = degradedLag;
+        this.maxPartitionLag = maxPartitionLag;
+        this.degradedPartitionLag = degradedPartitionLag;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    public long getDegradedLag() {
+        return degradedLag;
+    }
+
+    public long getMaxPartitionLag() {
+        return maxPartitionLag;
+    }
+
+    public long getDegradedPartitionLag() {
+        return degradedPartitionLag;
+    }
+}
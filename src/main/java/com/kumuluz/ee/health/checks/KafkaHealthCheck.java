@@ -22,23 +22,32 @@ package com.kumuluz.ee.health.checks;
 
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
-import org.apache.kafka.clients.admin.AdminClient;
-import org.apache.kafka.clients.admin.KafkaAdminClient;
+import org.apache.kafka.clients.admin.DescribeClusterOptions;
 import org.apache.kafka.common.Node;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Kafka health check.
+ * Kafka health check. Keeps a long-lived admin client per configured cluster and caches the described cluster for a
+ * short interval.
  *
  * @author Urban Malc
  * @since 2.3.0
@@ -49,46 +58,75 @@ public class KafkaHealthCheck extends KumuluzHealthCheck implements HealthCheck
 
     private static final Logger LOG = Logger.getLogger(KafkaHealthCheck.class.getName());
 
-    private static final String DEFAULT_KAFKA_BOOTSTRAP_SERVERS = "localhost:9092";
-    private static final int DEFAULT_KAFKA_REQUEST_TIMEOUT_MS = 5000;
     private static final int DEFAULT_KAFKA_MIN_AVAILABLE_NODES = 1;
 
-    @Override
-    public HealthCheckResponse call() {
-        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse.named(KafkaHealthCheck.class.getSimpleName()).up();
+    // Default interval in milliseconds during which the described cluster is reused
+    private static final long DEFAULT_CACHE_MS = 1000;
 
-        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+    // Configuration keys of the health check, which are not passed to the admin client
+    private static final Set<String> NON_CLIENT_KEYS = new HashSet<>(Arrays.asList("type", "name",
+            "minimum-available-nodes", "cache-ms"));
 
-        Map<String, Object> configuration = getHealthCheckConfiguration(name());
+    private volatile List<KafkaCluster> clusters = Collections.emptyList();
+    private volatile int parallelism;
 
-        configuration.putIfAbsent("bootstrap.servers", DEFAULT_KAFKA_BOOTSTRAP_SERVERS);
-        configuration.putIfAbsent("request.timeout.ms", DEFAULT_KAFKA_REQUEST_TIMEOUT_MS);
+    @PostConstruct
+    public void init() {
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
 
-        Object requestTimeoutMsObj = configuration.get("request.timeout.ms");
-        int requestTimeoutMs = requestTimeoutMsObj instanceof String
-                ? Integer.parseInt((String) requestTimeoutMsObj)
-                : (Integer) requestTimeoutMsObj;
-        configuration.putIfAbsent("connections.max.idle.ms", requestTimeoutMs * 3);
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
 
-        int minimumAvailableNodes = configurationUtil.getInteger(name() + ".minimum-available-nodes")
-                .orElse(DEFAULT_KAFKA_MIN_AVAILABLE_NODES);
+        List<KafkaCluster> previousClusters = clusters;
+        clusters = Collections.emptyList();
+        previousClusters.forEach(KafkaCluster::close);
+    }
 
-        try (AdminClient adminClient = KafkaAdminClient.create(configuration)) {
+    /**
+     * Parses the configuration and replaces the clusters. Connections of the previous clusters are closed, admin
+     * clients with unchanged properties are reused.
+     */
+    private void loadConfiguration() {
+        List<KafkaCluster> kafkaClusters = new ArrayList<>();
+
+        Optional<Integer> listSize = ConfigurationUtil.getInstance().getListSize(name());
+        if (listSize.isPresent()) {
+            for (int i = 0; i < listSize.get(); i++) {
+                kafkaClusters.add(new KafkaCluster(getConfiguration(name() + "[" + i + "]", "kafka-" + i)));
+            }
+        } else {
+            kafkaClusters.add(new KafkaCluster(getConfiguration(name(), null)));
+        }
 
-            // timeout on get serves only as fallback, the timeout in properties gives more descriptive exceptions
-            Collection<Node> nodes = adminClient.describeCluster().nodes()
-                    .get(DEFAULT_KAFKA_REQUEST_TIMEOUT_MS * 2, TimeUnit.MILLISECONDS);
+        parallelism = getParallelism();
 
-            if (nodes.size() < minimumAvailableNodes) {
-                healthCheckResponseBuilder.down();
-            }
+        List<KafkaCluster> previousClusters = clusters;
+        clusters = Collections.unmodifiableList(kafkaClusters);
+        previousClusters.forEach(KafkaCluster::close);
+    }
 
-            healthCheckResponseBuilder.withData("available-nodes", nodes.size());
+    private KafkaHealthCheckConfiguration getConfiguration(String prefix, String defaultName) {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        Map<String, Object> properties = KafkaConnection.loadProperties(prefix, NON_CLIENT_KEYS);
+        int requestTimeoutMs = KafkaConnection.getRequestTimeout(properties);
 
-        } catch (Exception e) {
-            LOG.log(Level.SEVERE, "Could not get available nodes from Kafka cluster.", e);
-            healthCheckResponseBuilder.down();
-        }
+        int minimumAvailableNodes = configurationUtil.getInteger(prefix + ".minimum-available-nodes")
+                .orElse(DEFAULT_KAFKA_MIN_AVAILABLE_NODES);
+        long cacheMs = configurationUtil.getLong(prefix + ".cache-ms").orElse(DEFAULT_CACHE_MS);
+
+        return new KafkaHealthCheckConfiguration(configurationUtil.get(prefix + ".name").orElse(defaultName),
+                properties, minimumAvailableNodes, requestTimeoutMs, cacheMs);
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse.named(KafkaHealthCheck.class.getSimpleName()).up();
+
+        TargetExecutor.map(clusters, parallelism, KafkaCluster::check)
+                .forEach(result -> result.applyTo(healthCheckResponseBuilder));
 
         return healthCheckResponseBuilder.build();
     }
@@ -108,21 +146,105 @@ public class KafkaHealthCheck extends KumuluzHealthCheck implements HealthCheck
             return false;
         }
     }
+}
 
-    private Map<String, Object> getHealthCheckConfiguration(String configurationKey) {
-        Map<String, Object> configuration = new HashMap<>();
+/**
+ * Kafka cluster of the health check. The result of the last check is reused during the cache interval, so concurrent
+ * and frequent probes share a single describe cluster request.
+ */
+class KafkaCluster {
 
-        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+    private static final Logger LOG = Logger.getLogger(KafkaCluster.class.getName());
+
+    private final KafkaHealthCheckConfiguration configuration;
+    private final KafkaConnection connection;
+
+    private TargetResult cachedResult;
+    private long cachedAt;
+
+    KafkaCluster(KafkaHealthCheckConfiguration configuration) {
+        this.configuration = configuration;
+        this.connection = KafkaConnection.open(configuration.getProperties());
+    }
 
-        configurationUtil.getMapKeys(configurationKey).ifPresent(keys -> {
-            keys.forEach(key -> {
-                configurationUtil.get(configurationKey + "." + key).ifPresent(value -> {
-                    String newKey = key.replaceAll("-", ".");
-                    configuration.put(newKey, value);
-                });
-            });
-        });
+    synchronized TargetResult check() {
+        long now = System.nanoTime();
+
+        if (cachedResult == null || now - cachedAt >= TimeUnit.MILLISECONDS.toNanos(configuration.getCacheMs())) {
+            cachedResult = describeCluster();
+            cachedAt = System.nanoTime();
+        }
+
+        return cachedResult;
+    }
+
+    private TargetResult describeCluster() {
+        // data of a single unnamed cluster is not prefixed
+        String name = configuration.getName();
+        String prefix = name != null ? name + "." : "";
+
+        TargetResult result = new TargetResult();
+
+        try {
+            DescribeClusterOptions options = new DescribeClusterOptions().timeoutMs(configuration.getRequestTimeout());
+
+            // timeout on get serves only as fallback, the timeout in options gives more descriptive exceptions
+            Collection<Node> nodes = connection.getAdminClient().describeCluster(options).nodes()
+                    .get(configuration.getRequestTimeout() * 2L, TimeUnit.MILLISECONDS);
+
+            result.withData(prefix + "available-nodes", nodes.size());
+
+            if (nodes.size() < configuration.getMinimumAvailableNodes()) {
+                return name != null ? result.down(name) : result.down();
+            }
+
+            return name != null ? result.up(name) : result;
+        } catch (Exception e) {
+            LOG.log(Level.SEVERE, "Could not get available nodes from Kafka cluster" +
+                    (name != null ? " (" + name + ")." : "."), e);
+            return name != null ? result.down(name) : result.down();
+        }
+    }
+
+    void close() {
+        connection.close();
+    }
+}
+
+class KafkaHealthCheckConfiguration {
+
+    private final String name;
+    private final Map<String, Object> properties;
+    private final int minimumAvailableNodes;
+    private final int requestTimeout;
+    private final long cacheMs;
+
+    KafkaHealthCheckConfiguration(String name, Map<String, Object> properties, int minimumAvailableNodes,
+                                  int requestTimeout, long cacheMs) {
+        this.name = name;
+        this.properties = Collections.unmodifiableMap(new HashMap<>(properties));
+        this.minimumAvailableNodes = minimumAvailableNodes;
+        this.requestTimeout = requestTimeout;
+        this.cacheMs = cacheMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+
+    public int getMinimumAvailableNodes() {
+        return minimumAvailableNodes;
+    }
+
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
 
-        return configuration;
+    public long getCacheMs() {
+        return cacheMs;
     }
 }
@@ -20,9 +20,12 @@
  */
 package com.kumuluz.ee.health.checks;
 
+import com.kumuluz.ee.configuration.ConfigurationListener;
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.health.enums.HealthCheckType;
 
+import java.util.Arrays;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -33,12 +36,73 @@ public abstract class KumuluzHealthCheck {
 
     private static final Logger LOG = Logger.getLogger(KumuluzHealthCheck.class.getName());
 
+    // Default maximum number of targets of a health check, which are evaluated at the same time
+    protected static final int DEFAULT_PARALLELISM = 8;
+
     protected String kumuluzBaseHealthConfigPath = "kumuluzee.health.checks.";
 
+    private ConfigurationListener configurationListener;
+
     public abstract String name();
 
     public abstract boolean initSuccess();
 
+    /**
+     * Invokes the given callback whenever a configuration key of the health check changes. Health checks use it to
+     * replace their parsed configuration, so that no configuration is read when the health check is called.
+     *
+     * @param onChange           callback invoked on configuration change
+     * @param additionalPrefixes prefixes of other configuration keys used by the health check
+     */
+    protected void subscribeToConfigurationChanges(Runnable onChange, String... additionalPrefixes) {
+        String prefix = name();
+
+        configurationListener = (key, value) -> {
+            if (matches(key, prefix) || Arrays.stream(additionalPrefixes).anyMatch(p -> matches(key, p))) {
+                try {
+                    onChange.run();
+                } catch (Exception e) {
+                    LOG.log(Level.SEVERE, "Could not reload configuration of the health check " + prefix + ".", e);
+                }
+            }
+        };
+
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        configurationUtil.subscribe(prefix, configurationListener);
+
+        // the listener is subscribed once, other prefixes only need to be watched in the configuration sources
+        for (String additionalPrefix : additionalPrefixes) {
+            configurationUtil.getConfigurationSources().forEach(source -> source.watch(additionalPrefix));
+        }
+    }
+
+    /**
+     * Checks if the key is the prefix itself or a nested key or list item of it, but not a sibling key sharing the
+     * prefix, e.g. {@code http-health-check-engine} for {@code http-health-check}.
+     */
+    private static boolean matches(String key, String prefix) {
+        return key.startsWith(prefix) && (key.length() == prefix.length() || key.charAt(prefix.length()) == '.' ||
+                key.charAt(prefix.length()) == '[');
+    }
+
+    /**
+     * Stops listening to configuration changes of the health check.
+     */
+    protected void unsubscribeFromConfigurationChanges() {
+        if (configurationListener != null) {
+            ConfigurationUtil.getInstance().unsubscribe(configurationListener);
+            configurationListener = null;
+        }
+    }
+
+    /**
+     * @return maximum number of targets of a multi-target health check, which are evaluated at the same time
+     */
+    protected int getParallelism() {
+        return ConfigurationUtil.getInstance().getInteger(kumuluzBaseHealthConfigPath + "parallelism")
+                .orElse(DEFAULT_PARALLELISM);
+    }
+
     public HealthCheckType getHealthCheckType() {
         String type = ConfigurationUtil.getInstance().get(name() + ".type").orElse("readiness");
 
@@ -0,0 +1,139 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoClientURI;
+import org.bson.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection to a Mongo database. Clients are shared between connections with the same connection URL and server
+ * selection timeout and are closed when the last connection using them is closed.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class MongoConnection {
+
+    private static final Logger LOG = Logger.getLogger(MongoConnection.class.getName());
+
+    // Default database of the commands when the connection URL does not specify one
+    private static final String DEFAULT_DATABASE = "admin";
+
+    private static final Map<String, SharedClient> CLIENTS = new HashMap<>();
+
+    private final String key;
+    private final String database;
+    private final MongoClient client;
+
+    private boolean closed;
+
+    private MongoConnection(String key, String database, MongoClient client) {
+        this.key = key;
+        this.database = database;
+        this.client = client;
+    }
+
+    /**
+     * Opens a connection using a shared client. The client connects in the background.
+     *
+     * @param connectionUrl          connection URL
+     * @param serverSelectionTimeout server selection timeout in milliseconds, unless set in the connection URL
+     * @return connection
+     */
+    static MongoConnection open(String connectionUrl, int serverSelectionTimeout) {
+        MongoClientURI mongoClientURI = new MongoClientURI(connectionUrl,
+                MongoClientOptions.builder().serverSelectionTimeout(serverSelectionTimeout));
+        String database = mongoClientURI.getDatabase() != null ? mongoClientURI.getDatabase() : DEFAULT_DATABASE;
+        String key = connectionUrl + "|" + serverSelectionTimeout;
+
+        synchronized (CLIENTS) {
+            SharedClient sharedClient = CLIENTS.computeIfAbsent(key,
+                    k -> new SharedClient(new MongoClient(mongoClientURI)));
+            sharedClient.references++;
+
+            return new MongoConnection(key, database, sharedClient.client);
+        }
+    }
+
+    /**
+     * Sends the {@code ping} command to the database of the connection.
+     */
+    void ping() {
+        runCommand(new Document("ping", 1));
+    }
+
+    /**
+     * Runs the command on the database of the connection.
+     *
+     * @param command command
+     * @return command result
+     */
+    Document runCommand(Document command) {
+        return client.getDatabase(database).runCommand(command);
+    }
+
+    /**
+     * Runs the command on the admin database.
+     *
+     * @param command command
+     * @return command result
+     */
+    Document runAdminCommand(Document command) {
+        return client.getDatabase(DEFAULT_DATABASE).runCommand(command);
+    }
+
+    void close() {
+        synchronized (CLIENTS) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            SharedClient sharedClient = CLIENTS.get(key);
+            if (sharedClient != null && --sharedClient.references == 0) {
+                CLIENTS.remove(key);
+
+                try {
+                    sharedClient.client.close();
+                } catch (Exception exception) {
+                    LOG.log(Level.FINE, "An exception occurred when trying to close Mongo client.", exception);
+                }
+            }
+        }
+    }
+
+    private static class SharedClient {
+
+        private final MongoClient client;
+        private int references;
+
+        SharedClient(MongoClient client) {
+            this.client = client;
+        }
+    }
+}
@@ -22,17 +22,17 @@ package com.kumuluz.ee.health.checks;
 
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
-import com.mongodb.MongoClient;
-import com.mongodb.MongoClientURI;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Mongo DB health check.
+ * Mongo DB health check. Sends the {@code ping} command to the configured database using a long-lived client.
  *
  * @author Marko Škrjanec
  * @since 1.0.0
@@ -44,55 +44,68 @@ public class MongoHealthCheck extends KumuluzHealthCheck implements HealthCheck
     private static final Logger LOG = Logger.getLogger(MongoHealthCheck.class.getName());
 
     // Default mongo connection url
-    private static final String DEFAULT_MONGO_URL = "mongodb://localhost:27017/local?serverSelectionTimeoutMS=2000";
+    static final String DEFAULT_MONGO_URL = "mongodb://localhost:27017/local?serverSelectionTimeoutMS=2000";
 
-    @Override
-    public HealthCheckResponse call() {
-        String connectionUrl = ConfigurationUtil.getInstance()
-                .get(name() + ".connection-url")
-                .orElse(DEFAULT_MONGO_URL);
+    // Default server selection timeout in milliseconds
+    static final int DEFAULT_SERVER_SELECTION_TIMEOUT_MS = 2000;
 
-        MongoClient mongoClient = null;
+    private volatile MongoConnection connection;
 
-        try {
-            MongoClientURI mongoClientURI = new MongoClientURI(connectionUrl);
-            mongoClient = new MongoClient(mongoClientURI);
-
-            if (databaseExist(mongoClient, mongoClientURI.getDatabase())) {
-                return HealthCheckResponse.up(MongoHealthCheck.class.getSimpleName());
-            } else {
-                LOG.severe("Mongo database not found.");
-                return HealthCheckResponse.down(MongoHealthCheck.class.getSimpleName());
-            }
-        } catch (Exception exception) {
-            LOG.log(Level.SEVERE, "An exception occurred when trying to establish connection to Mongo.", exception);
-            return HealthCheckResponse.down(MongoHealthCheck.class.getSimpleName());
-        } finally {
-            if (mongoClient != null) {
-                mongoClient.close();
-            }
+    @PostConstruct
+    public void init() {
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
 
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        MongoConnection previousConnection = connection;
+        connection = null;
+        if (previousConnection != null) {
+            previousConnection.close();
         }
     }
 
     /**
-     * Helper method for checking if database name exists.
-     *
-     * @param mongoClient
-     * @param databaseName
-     * @return
+     * Parses the configuration and replaces the connection. The previous connection is closed.
      */
-    private Boolean databaseExist(MongoClient mongoClient, String databaseName) {
+    private void loadConfiguration() {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+
+        String connectionUrl = configurationUtil.get(name() + ".connection-url").orElse(DEFAULT_MONGO_URL);
+        int serverSelectionTimeout = configurationUtil.getInteger(name() + ".server-selection-timeout-ms")
+                .orElse(DEFAULT_SERVER_SELECTION_TIMEOUT_MS);
+
+        MongoConnection previousConnection = connection;
+        try {
+            connection = MongoConnection.open(connectionUrl, serverSelectionTimeout);
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to create Mongo client.", exception);
+            connection = null;
+        }
+
+        if (previousConnection != null) {
+            previousConnection.close();
+        }
+    }
 
-        if (mongoClient != null && databaseName != null) {
+    @Override
+    public HealthCheckResponse call() {
+        MongoConnection mongoConnection = connection;
 
-            for (String s : mongoClient.listDatabaseNames()) {
-                if (s.equals(databaseName))
-                    return true;
-            }
+        if (mongoConnection == null) {
+            return HealthCheckResponse.down(MongoHealthCheck.class.getSimpleName());
         }
 
-        return false;
+        try {
+            mongoConnection.ping();
+            return HealthCheckResponse.up(MongoHealthCheck.class.getSimpleName());
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to ping Mongo.", exception);
+            return HealthCheckResponse.down(MongoHealthCheck.class.getSimpleName());
+        }
     }
 
     @Override
@@ -0,0 +1,297 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Mongo server health check. Runs {@code replSetGetStatus} and {@code serverStatus} on a shared client and checks the
+ * replication lag of secondaries, connection usage and WiredTiger cache pressure against thresholds.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+@ApplicationScoped
+@BuiltInHealthCheck
+public class MongoServerHealthCheck extends KumuluzHealthCheck implements HealthCheck {
+
+    private static final Logger LOG = Logger.getLogger(MongoServerHealthCheck.class.getName());
+
+    private static final int UP = 0;
+    private static final int DEGRADED = 1;
+    private static final int DOWN = 2;
+
+    private volatile MongoConnection connection;
+    private volatile MongoServerConfiguration configuration;
+
+    @PostConstruct
+    public void init() {
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        MongoConnection previousConnection = connection;
+        connection = null;
+        if (previousConnection != null) {
+            previousConnection.close();
+        }
+    }
+
+    /**
+     * Parses the configuration and replaces the connection. The previous connection is closed.
+     */
+    private void loadConfiguration() {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+
+        configuration = new MongoServerConfiguration(
+                configurationUtil.get(name() + ".name").orElse("mongo"),
+                configurationUtil.getLong(name() + ".max-replication-lag-s").orElse(60L),
+                configurationUtil.getLong(name() + ".degraded-replication-lag-s").orElse(10L),
+                configurationUtil.getDouble(name() + ".max-connections-percent").orElse(95.0),
+                configurationUtil.getDouble(name() + ".degraded-connections-percent").orElse(80.0),
+                configurationUtil.getDouble(name() + ".max-cache-percent").orElse(-1.0),
+                configurationUtil.getDouble(name() + ".degraded-cache-percent").orElse(95.0),
+                configurationUtil.getDouble(name() + ".max-cache-dirty-percent").orElse(20.0),
+                configurationUtil.getDouble(name() + ".degraded-cache-dirty-percent").orElse(10.0));
+
+        String connectionUrl = configurationUtil.get(name() + ".connection-url")
+                .orElse(MongoHealthCheck.DEFAULT_MONGO_URL);
+        int serverSelectionTimeout = configurationUtil.getInteger(name() + ".server-selection-timeout-ms")
+                .orElse(MongoHealthCheck.DEFAULT_SERVER_SELECTION_TIMEOUT_MS);
+
+        MongoConnection previousConnection = connection;
+        try {
+            connection = MongoConnection.open(connectionUrl, serverSelectionTimeout);
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to create Mongo client.", exception);
+            connection = null;
+        }
+
+        if (previousConnection != null) {
+            previousConnection.close();
+        }
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse
+                .named(MongoServerHealthCheck.class.getSimpleName())
+                .up();
+
+        check(connection, configuration).applyTo(healthCheckResponseBuilder);
+
+        return healthCheckResponseBuilder.build();
+    }
+
+    private static TargetResult check(MongoConnection mongoConnection, MongoServerConfiguration configuration) {
+        String name = configuration.getName();
+
+        if (mongoConnection == null) {
+            return new TargetResult().down(name);
+        }
+
+        MongoServerStatus status;
+        try {
+            status = MongoServerStatus.read(mongoConnection);
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to read status of Mongo (" + name + ").",
+                    exception);
+            return new TargetResult().down(name);
+        }
+
+        return evaluate(status, configuration);
+    }
+
+    /**
+     * Evaluates the server status against the thresholds.
+     *
+     * @param status        server status
+     * @param configuration thresholds
+     * @return result of the server
+     */
+    static TargetResult evaluate(MongoServerStatus status, MongoServerConfiguration configuration) {
+        String name = configuration.getName();
+        TargetResult result = new TargetResult();
+        List<String> exceeded = new ArrayList<>();
+        int level = UP;
+
+        if (status.isReplicaSet() && !status.hasPrimary()) {
+            exceeded.add("no primary");
+            level = DOWN;
+        }
+
+        if (status.getReplicationLagMs() >= 0) {
+            long replicationLag = TimeUnit.MILLISECONDS.toSeconds(status.getReplicationLagMs());
+            result.withData(name + ".replication-lag-s", replicationLag);
+            level = check(level, exceeded, "replication lag", replicationLag, configuration.getMaxReplicationLagS(),
+                    configuration.getDegradedReplicationLagS());
+        }
+
+        if (status.getCurrentConnections() >= 0 && status.getAvailableConnections() >= 0) {
+            long totalConnections = status.getCurrentConnections() + status.getAvailableConnections();
+            double connectionsPercent = totalConnections > 0 ?
+                    100.0 * status.getCurrentConnections() / totalConnections : 0;
+            result.withData(name + ".connections", status.getCurrentConnections());
+            result.withData(name + ".connections-percent", Math.round(connectionsPercent));
+            level = check(level, exceeded, "connections", connectionsPercent,
+                    configuration.getMaxConnectionsPercent(), configuration.getDegradedConnectionsPercent());
+        }
+
+        if (status.getMaxCacheBytes() > 0) {
+            if (status.getCacheBytes() >= 0) {
+                double cachePercent = 100.0 * status.getCacheBytes() / status.getMaxCacheBytes();
+                result.withData(name + ".cache-percent", Math.round(cachePercent));
+                level = check(level, exceeded, "cache", cachePercent, configuration.getMaxCachePercent(),
+                        configuration.getDegradedCachePercent());
+            }
+            if (status.getDirtyCacheBytes() >= 0) {
+                double dirtyPercent = 100.0 * status.getDirtyCacheBytes() / status.getMaxCacheBytes();
+                result.withData(name + ".cache-dirty-percent", Math.round(dirtyPercent));
+                level = check(level, exceeded, "dirty cache", dirtyPercent, configuration.getMaxCacheDirtyPercent(),
+                        configuration.getDegradedCacheDirtyPercent());
+            }
+        }
+
+        if (level == DOWN) {
+            LOG.severe("Mongo (" + name + ") cannot keep up: " + String.join(", ", exceeded) + ".");
+            result.down(name);
+        } else if (level == DEGRADED) {
+            LOG.warning("Mongo (" + name + ") is under pressure: " + String.join(", ", exceeded) + ".");
+            result.degraded(name);
+        } else {
+            result.up(name);
+        }
+
+        return result;
+    }
+
+    private static int check(int level, List<String> exceeded, String metric, double value, double maxThreshold,
+                             double degradedThreshold) {
+        int metricLevel = exceeds(value, maxThreshold) ? DOWN : exceeds(value, degradedThreshold) ? DEGRADED : UP;
+
+        if (metricLevel != UP) {
+            exceeded.add(metric);
+        }
+
+        return Math.max(level, metricLevel);
+    }
+
+    private static boolean exceeds(double value, double threshold) {
+        return threshold >= 0 && value > threshold;
+    }
+
+    @Override
+    public String name() {
+        return kumuluzBaseHealthConfigPath + "mongo-server-health-check";
+    }
+
+    @Override
+    public boolean initSuccess() {
+        try {
+            Class.forName("com.mongodb.MongoClient");
+            return true;
+        } catch (ClassNotFoundException e) {
+            LOG.severe("The required mongo-java-driver library appears to be missing.");
+            return false;
+        }
+    }
+}
+
+class MongoServerConfiguration {
+
+    private final String name;
+    private final long maxReplicationLagS;
+    private final long degradedReplicationLagS;
+    private final double maxConnectionsPercent;
+    private final double degradedConnectionsPercent;
+    private final double maxCachePercent;
+    private final double degradedCachePercent;
+    private final double maxCacheDirtyPercent;
+    private final double degradedCacheDirtyPercent;
+
+    MongoServerConfiguration(String name, long maxReplicationLagS, long degradedReplicationLagS,
+                             double maxConnectionsPercent, double degradedConnectionsPercent, double maxCachePercent,
+                             double degradedCachePercent, double maxCacheDirtyPercent,
+                             double degradedCacheDirtyPercent) {
+        this.name = name;
+        this.maxReplicationLagS = maxReplicationLagS;
+        this.degradedReplicationLagS = degradedReplicationLagS;
+        this.maxConnectionsPercent = maxConnectionsPercent;
+        this.degradedConnectionsPercent = degradedConnectionsPercent;
+        this.maxCachePercent = maxCachePercent;
+        this.degradedCachePercent = degradedCachePercent;
+        this.maxCacheDirtyPercent = maxCacheDirtyPercent;
+        this.degradedCacheDirtyPercent = degradedCacheDirtyPercent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMaxReplicationLagS() {
+        return maxReplicationLagS;
+    }
+
+    public long getDegradedReplicationLagS() {
+        return degradedReplicationLagS;
+    }
+
+    public double getMaxConnectionsPercent() {
+        return maxConnectionsPercent;
+    }
+
+    public double getDegradedConnectionsPercent() {
+        return degradedConnectionsPercent;
+    }
+
+    public double getMaxCachePercent() {
+        return maxCachePercent;
+    }
+
+    public double getDegradedCachePercent() {
+        return degradedCachePercent;
+    }
+
+    public double getMaxCacheDirtyPercent() {
+        return maxCacheDirtyPercent;
+    }
+
+    public double getDegradedCacheDirtyPercent() {
+        return degradedCacheDirtyPercent;
+    }
+}
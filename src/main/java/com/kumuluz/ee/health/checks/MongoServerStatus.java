@@ -0,0 +1,170 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.mongodb.MongoCommandException;
+import org.bson.Document;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Replication, connection and WiredTiger cache metrics of a Mongo server read with {@code replSetGetStatus} and
+ * {@code serverStatus}.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class MongoServerStatus {
+
+    // Error codes of replSetGetStatus on servers without replication and on mongos routers
+    private static final int NO_REPLICATION_ENABLED = 76;
+    private static final int COMMAND_NOT_FOUND = 59;
+
+    // Top-level sections of serverStatus, which are not needed and are excluded from the response, serverStatus does
+    // not accept exclusions of nested fields
+    private static final String[] EXCLUDED_SECTIONS = {"metrics", "locks", "opLatencies", "transactions",
+            "logicalSessionRecordCache"};
+
+    private boolean replicaSet;
+    private boolean primary;
+    private long replicationLagMs = -1;
+    private long currentConnections = -1;
+    private long availableConnections = -1;
+    private long cacheBytes = -1;
+    private long maxCacheBytes = -1;
+    private long dirtyCacheBytes = -1;
+
+    static MongoServerStatus read(MongoConnection connection) {
+        return read(connection::runAdminCommand);
+    }
+
+    /**
+     * Reads the server status with the given runner of admin commands.
+     *
+     * @param adminCommandRunner runs a command on the admin database and returns its result
+     * @return server status
+     */
+    static MongoServerStatus read(Function<Document, Document> adminCommandRunner) {
+        MongoServerStatus status = new MongoServerStatus();
+
+        try {
+            status.readReplicaSetStatus(adminCommandRunner.apply(new Document("replSetGetStatus", 1)));
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != NO_REPLICATION_ENABLED && e.getErrorCode() != COMMAND_NOT_FOUND) {
+                throw e;
+            }
+        }
+
+        Document serverStatusCommand = new Document("serverStatus", 1);
+        for (String section : EXCLUDED_SECTIONS) {
+            serverStatusCommand.append(section, 0);
+        }
+        status.readServerStatus(adminCommandRunner.apply(serverStatusCommand));
+
+        return status;
+    }
+
+    private void readReplicaSetStatus(Document replicaSetStatus) {
+        replicaSet = true;
+
+        List<Document> members = replicaSetStatus.getList("members", Document.class);
+        if (members == null) {
+            return;
+        }
+
+        Date primaryOptime = null;
+        Date oldestSecondaryOptime = null;
+        for (Document member : members) {
+            Date optime = member.getDate("optimeDate");
+            String state = member.getString("stateStr");
+
+            if ("PRIMARY".equals(state)) {
+                primary = true;
+                primaryOptime = optime;
+            } else if ("SECONDARY".equals(state) && optime != null &&
+                    (oldestSecondaryOptime == null || optime.before(oldestSecondaryOptime))) {
+                oldestSecondaryOptime = optime;
+            }
+        }
+
+        if (primaryOptime != null && oldestSecondaryOptime != null) {
+            replicationLagMs = Math.max(0, primaryOptime.getTime() - oldestSecondaryOptime.getTime());
+        }
+    }
+
+    private void readServerStatus(Document serverStatus) {
+        Document connections = serverStatus.get("connections", Document.class);
+        if (connections != null) {
+            currentConnections = getLong(connections, "current");
+            availableConnections = getLong(connections, "available");
+        }
+
+        Document wiredTiger = serverStatus.get("wiredTiger", Document.class);
+        Document cache = wiredTiger != null ? wiredTiger.get("cache", Document.class) : null;
+        if (cache != null) {
+            cacheBytes = getLong(cache, "bytes currently in the cache");
+            maxCacheBytes = getLong(cache, "maximum bytes configured");
+            dirtyCacheBytes = getLong(cache, "tracked dirty bytes in the cache");
+        }
+    }
+
+    private static long getLong(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : -1;
+    }
+
+    public boolean isReplicaSet() {
+        return replicaSet;
+    }
+
+    public boolean hasPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return replication lag of the slowest secondary behind the primary in milliseconds or {@code -1} when unknown
+     */
+    public long getReplicationLagMs() {
+        return replicationLagMs;
+    }
+
+    public long getCurrentConnections() {
+        return currentConnections;
+    }
+
+    public long getAvailableConnections() {
+        return availableConnections;
+    }
+
+    public long getCacheBytes() {
+        return cacheBytes;
+    }
+
+    public long getMaxCacheBytes() {
+        return maxCacheBytes;
+    }
+
+    public long getDirtyCacheBytes() {
+        return dirtyCacheBytes;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.BlockedListener;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent AMQP connection to a RabbitMQ broker (virtual host). The connection is opened on the first check and
+ * recovered automatically by the client. The broker is healthy when the connection is open, the broker has not blocked
+ * the connection because of a memory or disk alarm, and a passive declare succeeds.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class RabbitConnection {
+
+    private static final Logger LOG = Logger.getLogger(RabbitConnection.class.getName());
+
+    // Exchange declared passively when no queue is configured, it exists on every virtual host
+    private static final String DEFAULT_EXCHANGE = "amq.direct";
+
+    private final RabbitTargetConfiguration configuration;
+    private final String name;
+
+    private Connection connection;
+    private Channel channel;
+
+    private volatile String blockedReason;
+
+    RabbitConnection(RabbitTargetConfiguration configuration) {
+        this.configuration = configuration;
+        this.name = configuration.getName();
+    }
+
+    /**
+     * Checks the broker with a passive declare of the configured queue, or of the {@code amq.direct} exchange when no
+     * queue is configured.
+     *
+     * @return result of the broker
+     */
+    TargetResult check() {
+        try {
+            long start = System.nanoTime();
+
+            synchronized (this) {
+                Channel currentChannel = getChannel();
+
+                if (configuration.getPassiveQueue() != null) {
+                    currentChannel.queueDeclarePassive(configuration.getPassiveQueue());
+                } else {
+                    currentChannel.exchangeDeclarePassive(DEFAULT_EXCHANGE);
+                }
+            }
+
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            TargetResult result = new TargetResult().withData(name + ".latency-ms", latency);
+
+            String reason = blockedReason;
+            if (reason != null) {
+                LOG.severe("RabbitMQ (" + name + ") blocked the connection: " + reason);
+                return result.down(name).withData(name + ".blocked", reason);
+            }
+
+            return result.up(name);
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to check RabbitMQ (" + name + ").", exception);
+            return new TargetResult().down(name);
+        }
+    }
+
+    /**
+     * Returns the number of messages and consumers of the queue using a passive declare.
+     *
+     * @param queue name of the queue
+     * @return queue statistics without the head message timestamp
+     * @throws IOException if the queue does not exist or the broker is not available
+     */
+    synchronized RabbitQueueStats getQueueStats(String queue) throws IOException {
+        AMQP.Queue.DeclareOk declareOk = getChannel().queueDeclarePassive(queue);
+
+        return new RabbitQueueStats(declareOk.getMessageCount(), declareOk.getConsumerCount(), null);
+    }
+
+    private Channel getChannel() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            return channel;
+        }
+
+        // failed passive declares close the channel, the connection stays open
+        channel = getConnection().createChannel();
+        return channel;
+    }
+
+    private Connection getConnection() throws IOException {
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+
+        if (connection != null) {
+            // automatic recovery is in progress or the connection was closed by the broker
+            LOG.fine("Connection to RabbitMQ (" + name + ") is not open. Reconnecting.");
+            closeQuietly();
+        }
+
+        try {
+            ConnectionFactory factory = new ConnectionFactory();
+            // timeouts set in the connection URL take precedence
+            factory.setConnectionTimeout(configuration.getTimeout());
+            factory.setHandshakeTimeout(configuration.getTimeout());
+            factory.setChannelRpcTimeout(configuration.getTimeout());
+            factory.setUri(configuration.getConnectionUrl());
+            if (configuration.getVirtualHost() != null) {
+                factory.setVirtualHost(configuration.getVirtualHost());
+            }
+
+            connection = factory.newConnection("kumuluzee-health-" + name);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Could not connect to RabbitMQ (" + name + ").", e);
+        }
+
+        blockedReason = null;
+        connection.addBlockedListener(new BlockedListener() {
+            @Override
+            public void handleBlocked(String reason) {
+                blockedReason = reason;
+            }
+
+            @Override
+            public void handleUnblocked() {
+                blockedReason = null;
+            }
+        });
+
+        return connection;
+    }
+
+    synchronized void close() {
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        try {
+            if (connection != null) {
+                connection.abort(configuration.getTimeout());
+            }
+        } catch (Exception exception) {
+            LOG.log(Level.FINE, "An exception occurred when trying to close connection to RabbitMQ.", exception);
+        } finally {
+            connection = null;
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+/**
+ * Statistics of a RabbitMQ queue.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class RabbitQueueStats {
+
+    private final long messages;
+    private final long consumers;
+    private final Long headMessageTimestamp;
+
+    /**
+     * @param messages             number of messages ready for delivery
+     * @param consumers            number of consumers
+     * @param headMessageTimestamp timestamp of the oldest message in seconds or null if not known
+     */
+    RabbitQueueStats(long messages, long consumers, Long headMessageTimestamp) {
+        this.messages = messages;
+        this.consumers = consumers;
+        this.headMessageTimestamp = headMessageTimestamp;
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getConsumers() {
+        return consumers;
+    }
+
+    public Long getHeadMessageTimestamp() {
+        return headMessageTimestamp;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+/**
+ * Connection configuration of a RabbitMQ target, shared by {@link RabbitHealthCheck} and
+ * {@link RabbitQueueHealthCheck}.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class RabbitTargetConfiguration {
+
+    private final String name;
+    private final String connectionUrl;
+    private final String passiveQueue;
+    private final String virtualHost;
+    private final int timeout;
+
+    RabbitTargetConfiguration(String name, String connectionUrl, String passiveQueue, String virtualHost,
+                              int timeout) {
+        this.name = name;
+        this.connectionUrl = connectionUrl;
+        this.passiveQueue = passiveQueue;
+        this.virtualHost = virtualHost;
+        this.timeout = timeout;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getConnectionUrl() {
+        return connectionUrl;
+    }
+
+    public String getPassiveQueue() {
+        return passiveQueue;
+    }
+
+    /**
+     * @return virtual host, which overrides the virtual host of the connection URL, or {@code null}
+     */
+    public String getVirtualHost() {
+        return virtualHost;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisSentinelPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.util.Pool;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Long-lived connection to a Redis target, validated with {@code PING} or read with {@code INFO}. Standalone and
+ * Sentinel targets keep a small connection pool, Cluster targets keep a cluster client and additionally verify the
+ * cluster state. Pools and clients are created on the first check, since Sentinel and Cluster clients connect when
+ * they are created.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class RedisConnection {
+
+    private static final Logger LOG = Logger.getLogger(RedisConnection.class.getName());
+
+    private static final String CLUSTER_STATE_OK = "cluster_state:ok";
+
+    private final RedisTargetConfiguration configuration;
+
+    private Pool<Jedis> pool;
+    private JedisCluster cluster;
+
+    RedisConnection(RedisTargetConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    String getName() {
+        return configuration.getName();
+    }
+
+    /**
+     * Pings the target and measures the round-trip time.
+     *
+     * @return result of the target
+     */
+    TargetResult check() {
+        String name = configuration.getName();
+
+        try {
+            long start = System.nanoTime();
+
+            if (configuration.getClusterNodes() != null) {
+                pingCluster();
+            } else {
+                pingPool();
+            }
+
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            return new TargetResult()
+                    .up(name)
+                    .withData(name + ".latency-ms", latency);
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to ping Redis (" + name + ").", exception);
+            return new TargetResult().down(name);
+        }
+    }
+
+    private void pingPool() {
+        executeOnPool(Jedis::ping);
+    }
+
+    private <T> T executeOnPool(Function<Jedis, T> command) {
+        Pool<Jedis> currentPool = getPool();
+        boolean idleConnection = currentPool.getNumIdle() > 0;
+
+        try {
+            return execute(currentPool, command);
+        } catch (JedisConnectionException e) {
+            if (!idleConnection) {
+                throw e;
+            }
+
+            // idle connection may have been closed by the server, retry once with a new connection
+            return execute(currentPool, command);
+        }
+    }
+
+    private static <T> T execute(Pool<Jedis> pool, Function<Jedis, T> command) {
+        try (Jedis jedis = pool.getResource()) {
+            return command.apply(jedis);
+        }
+    }
+
+    private void pingCluster() {
+        Map<String, JedisPool> nodes = getCluster().getClusterNodes();
+
+        RuntimeException lastException = new IllegalStateException("No Redis cluster nodes are known.");
+        for (JedisPool node : nodes.values()) {
+            try (Jedis jedis = node.getResource()) {
+                jedis.ping();
+
+                if (!jedis.clusterInfo().contains(CLUSTER_STATE_OK)) {
+                    throw new IllegalStateException("Redis cluster state is not ok.");
+                }
+
+                return;
+            } catch (JedisConnectionException e) {
+                lastException = e;
+            }
+        }
+
+        throw lastException;
+    }
+
+    /**
+     * Reads the {@code INFO} of the target. Cluster targets read the {@code INFO} of every known node.
+     *
+     * @return {@code INFO} replies keyed by the target name, or by the target name and node address for cluster
+     * targets; a {@code null} reply marks an unavailable cluster node
+     */
+    Map<String, String> info() {
+        String name = configuration.getName();
+
+        if (configuration.getClusterNodes() == null) {
+            return Collections.singletonMap(name, executeOnPool(Jedis::info));
+        }
+
+        Map<String, String> infos = new LinkedHashMap<>();
+        for (Map.Entry<String, JedisPool> node : getCluster().getClusterNodes().entrySet()) {
+            try (Jedis jedis = node.getValue().getResource()) {
+                infos.put(name + "." + node.getKey(), jedis.info());
+            } catch (JedisConnectionException e) {
+                LOG.log(Level.WARNING, "An exception occurred when trying to read INFO of Redis cluster node " +
+                        node.getKey() + ".", e);
+                infos.put(name + "." + node.getKey(), null);
+            }
+        }
+
+        return infos;
+    }
+
+    private synchronized Pool<Jedis> getPool() {
+        if (pool == null) {
+            if (configuration.getSentinelMaster() != null) {
+                pool = new JedisSentinelPool(configuration.getSentinelMaster(),
+                        parseNodes(configuration.getSentinels()), createPoolConfig(), configuration.getTimeout(),
+                        configuration.getPassword(), configuration.getDatabase());
+            } else {
+                pool = new JedisPool(createPoolConfig(), URI.create(configuration.getConnectionUrl()),
+                        configuration.getTimeout());
+            }
+        }
+
+        return pool;
+    }
+
+    private synchronized JedisCluster getCluster() {
+        if (cluster == null) {
+            Set<HostAndPort> nodes = parseNodes(configuration.getClusterNodes()).stream()
+                    .map(HostAndPort::parseString)
+                    .collect(Collectors.toSet());
+
+            cluster = new JedisCluster(nodes, configuration.getTimeout(), configuration.getTimeout(), 1,
+                    configuration.getPassword(), createPoolConfig());
+        }
+
+        return cluster;
+    }
+
+    synchronized void close() {
+        try {
+            if (pool != null) {
+                pool.close();
+            }
+            if (cluster != null) {
+                cluster.close();
+            }
+        } catch (Exception exception) {
+            LOG.log(Level.FINE, "An exception occurred when trying to close connection to Redis.", exception);
+        } finally {
+            pool = null;
+            cluster = null;
+        }
+    }
+
+    private static Set<String> parseNodes(String nodes) {
+        return Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(node -> !node.isEmpty())
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static GenericObjectPoolConfig createPoolConfig() {
+        // a health check needs a single connection, the second one covers concurrent evaluations
+        GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
+        poolConfig.setMaxTotal(2);
+        poolConfig.setMaxIdle(2);
+        poolConfig.setMinIdle(0);
+        return poolConfig;
+    }
+}
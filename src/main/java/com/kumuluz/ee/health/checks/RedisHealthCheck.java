@@ -24,14 +24,20 @@ import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
-import redis.clients.jedis.JedisPool;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
-import java.util.logging.Level;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.logging.Logger;
 
 /**
- * Redis health check.
+ * Redis health check. Keeps a long-lived connection per configured Redis target (standalone, Sentinel or Cluster) and
+ * validates it with {@code PING}.
  *
  * @author Marko Škrjanec
  * @since 1.0.0
@@ -45,24 +51,77 @@ public class RedisHealthCheck extends KumuluzHealthCheck implements HealthCheck
     // Default redis connection url
     private static final String DEFAULT_REDIS_URL = "redis://localhost:6379/0";
 
-    @Override
-    public HealthCheckResponse call() {
-        String connectionUrl = ConfigurationUtil.getInstance().get(name() + ".connection-url")
-                .orElse(DEFAULT_REDIS_URL);
+    // Default timeout of connecting and reading in milliseconds
+    private static final int DEFAULT_TIMEOUT_MS = 2000;
 
-        JedisPool pool = null;
-        try {
-            pool = new JedisPool(connectionUrl);
-            pool.getResource();
-            return HealthCheckResponse.up(RedisHealthCheck.class.getSimpleName());
-        } catch (Exception exception) {
-            LOG.log(Level.SEVERE, "An exception occurred when trying to establish connection to Redis.", exception);
-            return HealthCheckResponse.down(RedisHealthCheck.class.getSimpleName());
-        } finally {
-            if (pool != null) {
-                pool.close();
+    private volatile List<RedisConnection> connections = Collections.emptyList();
+    private volatile int parallelism;
+
+    @PostConstruct
+    public void init() {
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        List<RedisConnection> previousConnections = connections;
+        connections = Collections.emptyList();
+        previousConnections.forEach(RedisConnection::close);
+    }
+
+    /**
+     * Parses the configuration and replaces the Redis connections. Previous connections are closed.
+     */
+    private void loadConfiguration() {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        List<RedisConnection> redisConnections = new ArrayList<>();
+
+        Optional<Integer> listSize = configurationUtil.getListSize(name());
+        if (listSize.isPresent()) {
+            for (int i = 0; i < listSize.get(); i++) {
+                redisConnections.add(new RedisConnection(
+                        getConfiguration(configurationUtil, name() + "[" + i + "]", "redis-" + i)));
             }
+        } else {
+            redisConnections.add(new RedisConnection(getConfiguration(configurationUtil, name(), "redis")));
         }
+
+        parallelism = getParallelism();
+
+        List<RedisConnection> previousConnections = connections;
+        connections = Collections.unmodifiableList(redisConnections);
+        previousConnections.forEach(RedisConnection::close);
+    }
+
+    /**
+     * Reads the connection configuration of a Redis target, which is shared with {@link RedisInfoHealthCheck}.
+     */
+    static RedisTargetConfiguration getConfiguration(ConfigurationUtil configurationUtil, String prefix,
+                                                     String defaultName) {
+        return new RedisTargetConfiguration(
+                configurationUtil.get(prefix + ".name").orElse(defaultName),
+                configurationUtil.get(prefix + ".connection-url").orElse(DEFAULT_REDIS_URL),
+                configurationUtil.get(prefix + ".sentinel-master").orElse(null),
+                configurationUtil.get(prefix + ".sentinels").orElse(""),
+                configurationUtil.get(prefix + ".cluster-nodes").orElse(null),
+                configurationUtil.get(prefix + ".password").orElse(null),
+                configurationUtil.getInteger(prefix + ".database").orElse(0),
+                configurationUtil.getInteger(prefix + ".timeout-ms").orElse(DEFAULT_TIMEOUT_MS));
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse
+                .named(RedisHealthCheck.class.getSimpleName())
+                .up();
+
+        TargetExecutor.map(connections, parallelism, RedisConnection::check)
+                .forEach(result -> result.applyTo(healthCheckResponseBuilder));
+
+        return healthCheckResponseBuilder.build();
     }
 
     @Override
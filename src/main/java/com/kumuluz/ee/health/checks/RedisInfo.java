@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+/**
+ * Fields of a Redis {@code INFO} reply read by {@link RedisInfoHealthCheck}. The reply is scanned line by line and only
+ * the needed fields are parsed, the rest of the reply is skipped without being split or copied.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class RedisInfo {
+
+    private long usedMemory = -1;
+    private long maxMemory = -1;
+    private long evictedKeys = -1;
+    private long blockedClients = -1;
+    private long opsPerSec = -1;
+    private boolean replica;
+    private boolean masterLinkUp = true;
+    private long masterLastIoSecondsAgo = -1;
+    private long masterReplOffset = -1;
+    private long minReplicaOffset = -1;
+    private long maxReplicaLag = -1;
+
+    static RedisInfo parse(String info) {
+        RedisInfo redisInfo = new RedisInfo();
+
+        int start = 0;
+        int length = info.length();
+        while (start < length) {
+            int end = info.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+
+            int lineEnd = end > start && info.charAt(end - 1) == '\r' ? end - 1 : end;
+            int separator = info.indexOf(':', start);
+            if (separator > start && separator < lineEnd && info.charAt(start) != '#') {
+                redisInfo.read(info, start, separator, lineEnd);
+            }
+
+            start = end + 1;
+        }
+
+        return redisInfo;
+    }
+
+    private void read(String info, int start, int separator, int end) {
+        if (is(info, start, separator, "used_memory")) {
+            usedMemory = parseLong(info, separator + 1, end);
+        } else if (is(info, start, separator, "maxmemory")) {
+            maxMemory = parseLong(info, separator + 1, end);
+        } else if (is(info, start, separator, "evicted_keys")) {
+            evictedKeys = parseLong(info, separator + 1, end);
+        } else if (is(info, start, separator, "blocked_clients")) {
+            blockedClients = parseLong(info, separator + 1, end);
+        } else if (is(info, start, separator, "instantaneous_ops_per_sec")) {
+            opsPerSec = parseLong(info, separator + 1, end);
+        } else if (is(info, start, separator, "role")) {
+            replica = info.startsWith("slave", separator + 1);
+        } else if (is(info, start, separator, "master_link_status")) {
+            masterLinkUp = info.startsWith("up", separator + 1);
+        } else if (is(info, start, separator, "master_last_io_seconds_ago")) {
+            masterLastIoSecondsAgo = parseLong(info, separator + 1, end);
+        } else if (is(info, start, separator, "master_repl_offset")) {
+            masterReplOffset = parseLong(info, separator + 1, end);
+        } else if (separator - start > 5 && info.startsWith("slave", start) &&
+                Character.isDigit(info.charAt(start + 5))) {
+            // slave<n>:ip=...,port=...,state=online,offset=...,lag=...
+            long offset = parseAttribute(info, separator + 1, end, "offset=");
+            if (offset >= 0 && (minReplicaOffset < 0 || offset < minReplicaOffset)) {
+                minReplicaOffset = offset;
+            }
+            maxReplicaLag = Math.max(maxReplicaLag, parseAttribute(info, separator + 1, end, "lag="));
+        }
+    }
+
+    private static boolean is(String info, int start, int separator, String field) {
+        return separator - start == field.length() && info.startsWith(field, start);
+    }
+
+    private static long parseAttribute(String info, int start, int end, String attribute) {
+        int position = start;
+        while (position < end) {
+            if (info.startsWith(attribute, position)) {
+                int valueEnd = info.indexOf(',', position);
+                return parseLong(info, position + attribute.length(), valueEnd < 0 || valueEnd > end ? end : valueEnd);
+            }
+
+            int next = info.indexOf(',', position);
+            if (next < 0 || next >= end) {
+                break;
+            }
+            position = next + 1;
+        }
+
+        return -1;
+    }
+
+    private static long parseLong(String info, int start, int end) {
+        try {
+            return Long.parseLong(info, start, end, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return used memory in bytes or {@code -1} when unknown
+     */
+    public long getUsedMemory() {
+        return usedMemory;
+    }
+
+    /**
+     * @return memory limit in bytes, {@code 0} when unlimited or {@code -1} when unknown
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public long getEvictedKeys() {
+        return evictedKeys;
+    }
+
+    public long getBlockedClients() {
+        return blockedClients;
+    }
+
+    public long getOpsPerSec() {
+        return opsPerSec;
+    }
+
+    public boolean isReplica() {
+        return replica;
+    }
+
+    public boolean isMasterLinkUp() {
+        return masterLinkUp;
+    }
+
+    /**
+     * @return seconds since the last interaction of a replica with its master or {@code -1} when unknown
+     */
+    public long getMasterLastIoSecondsAgo() {
+        return masterLastIoSecondsAgo;
+    }
+
+    /**
+     * @return bytes of the replication stream of a master not yet acknowledged by its slowest replica or {@code -1}
+     * when the master has no replicas
+     */
+    public long getReplicationLagBytes() {
+        return replica || minReplicaOffset < 0 || masterReplOffset < 0 ? -1 : masterReplOffset - minReplicaOffset;
+    }
+
+    /**
+     * @return seconds since the last acknowledgement of the slowest replica of a master or {@code -1} when the master
+     * has no replicas
+     */
+    public long getMaxReplicaLag() {
+        return maxReplicaLag;
+    }
+}
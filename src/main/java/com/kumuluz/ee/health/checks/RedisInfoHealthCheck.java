@@ -0,0 +1,365 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Redis server pressure health check. Reads {@code INFO} of the configured Redis targets and checks memory usage,
+ * evictions, blocked clients, throughput and replication lag against thresholds.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+@ApplicationScoped
+@BuiltInHealthCheck
+public class RedisInfoHealthCheck extends KumuluzHealthCheck implements HealthCheck {
+
+    private static final Logger LOG = Logger.getLogger(RedisInfoHealthCheck.class.getName());
+
+    // Default memory usage thresholds in percent of maxmemory
+    private static final double DEFAULT_MAX_MEMORY_PERCENT = 95;
+    private static final double DEFAULT_DEGRADED_MEMORY_PERCENT = 80;
+
+    private volatile List<RedisInfoTarget> targets = Collections.emptyList();
+    private volatile int parallelism;
+
+    @PostConstruct
+    public void init() {
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        List<RedisInfoTarget> previousTargets = targets;
+        targets = Collections.emptyList();
+        previousTargets.forEach(RedisInfoTarget::close);
+    }
+
+    /**
+     * Parses the configuration and replaces the Redis targets. Connections of the previous targets are closed.
+     */
+    private void loadConfiguration() {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        List<RedisInfoTarget> redisTargets = new ArrayList<>();
+
+        Optional<Integer> listSize = configurationUtil.getListSize(name());
+        if (listSize.isPresent()) {
+            for (int i = 0; i < listSize.get(); i++) {
+                redisTargets.add(getTarget(configurationUtil, name() + "[" + i + "]", "redis-" + i));
+            }
+        } else {
+            redisTargets.add(getTarget(configurationUtil, name(), "redis"));
+        }
+
+        parallelism = getParallelism();
+
+        List<RedisInfoTarget> previousTargets = targets;
+        targets = Collections.unmodifiableList(redisTargets);
+        previousTargets.forEach(RedisInfoTarget::close);
+    }
+
+    private RedisInfoTarget getTarget(ConfigurationUtil configurationUtil, String prefix, String defaultName) {
+        RedisInfoConfiguration configuration = new RedisInfoConfiguration(
+                configurationUtil.getDouble(prefix + ".max-memory-percent").orElse(DEFAULT_MAX_MEMORY_PERCENT),
+                configurationUtil.getDouble(prefix + ".degraded-memory-percent")
+                        .orElse(DEFAULT_DEGRADED_MEMORY_PERCENT),
+                configurationUtil.getDouble(prefix + ".max-evictions-per-min").orElse(-1.0),
+                configurationUtil.getDouble(prefix + ".degraded-evictions-per-min").orElse(-1.0),
+                configurationUtil.getLong(prefix + ".max-blocked-clients").orElse(-1L),
+                configurationUtil.getLong(prefix + ".degraded-blocked-clients").orElse(-1L),
+                configurationUtil.getLong(prefix + ".max-ops-per-sec").orElse(-1L),
+                configurationUtil.getLong(prefix + ".degraded-ops-per-sec").orElse(-1L),
+                configurationUtil.getLong(prefix + ".max-replication-lag-s").orElse(-1L),
+                configurationUtil.getLong(prefix + ".degraded-replication-lag-s").orElse(-1L),
+                configurationUtil.getLong(prefix + ".max-replication-lag-bytes").orElse(-1L),
+                configurationUtil.getLong(prefix + ".degraded-replication-lag-bytes").orElse(-1L));
+
+        return new RedisInfoTarget(
+                new RedisConnection(RedisHealthCheck.getConfiguration(configurationUtil, prefix, defaultName)),
+                configuration);
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse
+                .named(RedisInfoHealthCheck.class.getSimpleName())
+                .up();
+
+        TargetExecutor.map(targets, parallelism, RedisInfoTarget::check)
+                .forEach(result -> result.applyTo(healthCheckResponseBuilder));
+
+        return healthCheckResponseBuilder.build();
+    }
+
+    @Override
+    public String name() {
+        return kumuluzBaseHealthConfigPath + "redis-info-health-check";
+    }
+
+    @Override
+    public boolean initSuccess() {
+        try {
+            Class.forName("redis.clients.jedis.JedisPool");
+            return true;
+        } catch (ClassNotFoundException e) {
+            LOG.severe("The required jedis library appears to be missing.");
+            return false;
+        }
+    }
+}
+
+/**
+ * Redis target of the pressure health check with the eviction counters of the previous check, which are needed for
+ * the eviction rate.
+ */
+class RedisInfoTarget {
+
+    private static final Logger LOG = Logger.getLogger(RedisInfoTarget.class.getName());
+
+    private static final int UP = 0;
+    private static final int DEGRADED = 1;
+    private static final int DOWN = 2;
+
+    private final RedisConnection connection;
+    private final RedisInfoConfiguration configuration;
+
+    // eviction counter and time of the previous check keyed by the data key of the server
+    private final Map<String, long[]> previousEvictions = new HashMap<>();
+
+    RedisInfoTarget(RedisConnection connection, RedisInfoConfiguration configuration) {
+        this.connection = connection;
+        this.configuration = configuration;
+    }
+
+    TargetResult check() {
+        TargetResult result = new TargetResult();
+
+        Map<String, String> infos;
+        try {
+            infos = connection.info();
+        } catch (Exception exception) {
+            LOG.log(Level.SEVERE, "An exception occurred when trying to read INFO of Redis (" +
+                    connection.getName() + ").", exception);
+            return result.down(connection.getName());
+        }
+
+        long time = System.nanoTime();
+        for (Map.Entry<String, String> info : infos.entrySet()) {
+            if (info.getValue() == null) {
+                result.down(info.getKey());
+            } else {
+                evaluate(info.getKey(), RedisInfo.parse(info.getValue()), time, result);
+            }
+        }
+
+        return result;
+    }
+
+    private synchronized void evaluate(String key, RedisInfo info, long time, TargetResult result) {
+        List<String> exceeded = new ArrayList<>();
+        int status = UP;
+
+        if (info.getMaxMemory() > 0 && info.getUsedMemory() >= 0) {
+            double memoryPercent = 100.0 * info.getUsedMemory() / info.getMaxMemory();
+            result.withData(key + ".memory-percent", Math.round(memoryPercent));
+            status = check(status, exceeded, "memory", memoryPercent, configuration.getMaxMemoryPercent(),
+                    configuration.getDegradedMemoryPercent());
+        }
+
+        if (info.getEvictedKeys() >= 0) {
+            long[] previous = previousEvictions.put(key, new long[]{info.getEvictedKeys(), time});
+            if (previous != null && time > previous[1]) {
+                // counters are reset when the server restarts
+                long evictions = info.getEvictedKeys() >= previous[0] ?
+                        info.getEvictedKeys() - previous[0] : info.getEvictedKeys();
+                double evictionsPerMin = evictions * (double) TimeUnit.MINUTES.toNanos(1) / (time - previous[1]);
+
+                result.withData(key + ".evictions-per-min", Math.round(evictionsPerMin));
+                status = check(status, exceeded, "evictions", evictionsPerMin,
+                        configuration.getMaxEvictionsPerMin(), configuration.getDegradedEvictionsPerMin());
+            }
+        }
+
+        if (info.getBlockedClients() >= 0) {
+            result.withData(key + ".blocked-clients", info.getBlockedClients());
+            status = check(status, exceeded, "blocked clients", info.getBlockedClients(),
+                    configuration.getMaxBlockedClients(), configuration.getDegradedBlockedClients());
+        }
+
+        if (info.getOpsPerSec() >= 0) {
+            result.withData(key + ".ops-per-sec", info.getOpsPerSec());
+            status = check(status, exceeded, "operations", info.getOpsPerSec(), configuration.getMaxOpsPerSec(),
+                    configuration.getDegradedOpsPerSec());
+        }
+
+        long replicationLag = info.isReplica() ? info.getMasterLastIoSecondsAgo() : info.getMaxReplicaLag();
+        if (replicationLag >= 0) {
+            result.withData(key + ".replication-lag-s", replicationLag);
+            status = check(status, exceeded, "replication lag", replicationLag,
+                    configuration.getMaxReplicationLagS(), configuration.getDegradedReplicationLagS());
+        }
+
+        if (info.getReplicationLagBytes() >= 0) {
+            result.withData(key + ".replication-lag-bytes", info.getReplicationLagBytes());
+            status = check(status, exceeded, "replication lag bytes", info.getReplicationLagBytes(),
+                    configuration.getMaxReplicationLagBytes(), configuration.getDegradedReplicationLagBytes());
+        }
+
+        if (info.isReplica() && !info.isMasterLinkUp()) {
+            exceeded.add("master link");
+            status = DOWN;
+        }
+
+        if (status == DOWN) {
+            LOG.severe("Redis (" + key + ") is under pressure: " + String.join(", ", exceeded) + ".");
+            result.down(key);
+        } else if (status == DEGRADED) {
+            LOG.warning("Redis (" + key + ") is under pressure: " + String.join(", ", exceeded) + ".");
+            result.degraded(key);
+        } else {
+            result.up(key);
+        }
+    }
+
+    private static int check(int status, List<String> exceeded, String metric, double value, double maxThreshold,
+                             double degradedThreshold) {
+        int metricStatus = exceeds(value, maxThreshold) ? DOWN :
+                exceeds(value, degradedThreshold) ? DEGRADED : UP;
+
+        if (metricStatus != UP) {
+            exceeded.add(metric);
+        }
+
+        return Math.max(status, metricStatus);
+    }
+
+    private static boolean exceeds(double value, double threshold) {
+        return threshold >= 0 && value > threshold;
+    }
+
+    void close() {
+        connection.close();
+    }
+}
+
+class RedisInfoConfiguration {
+
+    private final double maxMemoryPercent;
+    private final double degradedMemoryPercent;
+    private final double maxEvictionsPerMin;
+    private final double degradedEvictionsPerMin;
+    private final long maxBlockedClients;
+    private final long degradedBlockedClients;
+    private final long maxOpsPerSec;
+    private final long degradedOpsPerSec;
+    private final long maxReplicationLagS;
+    private final long degradedReplicationLagS;
+    private final long maxReplicationLagBytes;
+    private final long degradedReplicationLagBytes;
+
+    RedisInfoConfiguration(double maxMemoryPercent, double degradedMemoryPercent, double maxEvictionsPerMin,
+                           double degradedEvictionsPerMin, long maxBlockedClients, long degradedBlockedClients,
+                           long maxOpsPerSec, long degradedOpsPerSec, long maxReplicationLagS,
+                           long degradedReplicationLagS, long maxReplicationLagBytes,
+                           long degradedReplicationLagBytes) {
+        this.maxMemoryPercent = maxMemoryPercent;
+        this.degradedMemoryPercent = degradedMemoryPercent;
+        this.maxEvictionsPerMin = maxEvictionsPerMin;
+        this.degradedEvictionsPerMin = degradedEvictionsPerMin;
+        this.maxBlockedClients = maxBlockedClients;
+        this.degradedBlockedClients = degradedBlockedClients;
+        this.maxOpsPerSec = maxOpsPerSec;
+        this.degradedOpsPerSec = degradedOpsPerSec;
+        this.maxReplicationLagS = maxReplicationLagS;
+        this.degradedReplicationLagS = degradedReplicationLagS;
+        this.maxReplicationLagBytes = maxReplicationLagBytes;
+        this.degradedReplicationLagBytes = degradedReplicationLagBytes;
+    }
+
+    public double getMaxMemoryPercent() {
+        return maxMemoryPercent;
+    }
+
+    public double getDegradedMemoryPercent() {
+        return degradedMemoryPercent;
+    }
+
+    public double getMaxEvictionsPerMin() {
+        return maxEvictionsPerMin;
+    }
+
+    public double getDegradedEvictionsPerMin() {
+        return degradedEvictionsPerMin;
+    }
+
+    public long getMaxBlockedClients() {
+        return maxBlockedClients;
+    }
+
+    public long getDegradedBlockedClients() {
+        return degradedBlockedClients;
+    }
+
+    public long getMaxOpsPerSec() {
+        return maxOpsPerSec;
+    }
+
+    public long getDegradedOpsPerSec() {
+        return degradedOpsPerSec;
+    }
+
+    public long getMaxReplicationLagS() {
+        return maxReplicationLagS;
+    }
+
+    public long getDegradedReplicationLagS() {
+        return degradedReplicationLagS;
+    }
+
+    public long getMaxReplicationLagBytes() {
+        return maxReplicationLagBytes;
+    }
+
+    public long getDegradedReplicationLagBytes() {
+        return degradedReplicationLagBytes;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+/**
+ * Connection configuration of a Redis target, shared by {@link RedisHealthCheck} and {@link RedisInfoHealthCheck}.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class RedisTargetConfiguration {
+
+    private final String name;
+    private final String connectionUrl;
+    private final String sentinelMaster;
+    private final String sentinels;
+    private final String clusterNodes;
+    private final String password;
+    private final int database;
+    private final int timeout;
+
+    RedisTargetConfiguration(String name, String connectionUrl, String sentinelMaster, String sentinels,
+                             String clusterNodes, String password, int database, int timeout) {
+        this.name = name;
+        this.connectionUrl = connectionUrl;
+        this.sentinelMaster = sentinelMaster;
+        this.sentinels = sentinels;
+        this.clusterNodes = clusterNodes;
+        this.password = password;
+        this.database = database;
+        this.timeout = timeout;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getConnectionUrl() {
+        return connectionUrl;
+    }
+
+    public String getSentinelMaster() {
+        return sentinelMaster;
+    }
+
+    public String getSentinels() {
+        return sentinels;
+    }
+
+    public String getClusterNodes() {
+        return clusterNodes;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getDatabase() {
+        return database;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,504 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Storage I/O latency health check. Periodically writes, fsyncs and reads back a small preallocated file on the
+ * configured paths in the background and compares the percentiles of the write and fsync latency with the thresholds.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+@ApplicationScoped
+@BuiltInHealthCheck
+public class StorageLatencyHealthCheck extends KumuluzHealthCheck implements HealthCheck {
+
+    private static final Logger LOG = Logger.getLogger(StorageLatencyHealthCheck.class.getName());
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    // Default interval between probes in milliseconds
+    private static final long DEFAULT_INTERVAL_MS = 5000;
+
+    // Default size of the probe file in bytes
+    private static final int DEFAULT_FILE_SIZE_BYTES = 4096;
+
+    // Default number of latest probes used for the percentiles
+    private static final int DEFAULT_SAMPLES = 60;
+
+    // Default percentile compared with the thresholds
+    private static final int DEFAULT_PERCENTILE = 99;
+
+    // Time in milliseconds to wait for running probes when they are stopped, unless latency thresholds are longer
+    private static final long STOP_TIMEOUT_MS = 1000;
+
+    private volatile List<StorageProbe> probes = Collections.emptyList();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        loadConfiguration();
+        subscribeToConfigurationChanges(this::loadConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        unsubscribeFromConfigurationChanges();
+
+        stopProbes();
+    }
+
+    /**
+     * Parses the configuration and restarts the probes. Files of the previous probes are deleted.
+     */
+    private synchronized void loadConfiguration() {
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+        List<StorageProbe> storageProbes = new ArrayList<>();
+
+        Optional<Integer> listSize = configurationUtil.getListSize(name());
+        if (listSize.isPresent()) {
+            for (int i = 0; i < listSize.get(); i++) {
+                storageProbes.add(new StorageProbe(getConfiguration(configurationUtil, name() + "[" + i + "]")));
+            }
+        } else {
+            storageProbes.add(new StorageProbe(getConfiguration(configurationUtil, name())));
+        }
+
+        stopProbes();
+
+        probes = Collections.unmodifiableList(storageProbes);
+
+        // every path has its own thread, so a stalled fsync does not delay the probes of other paths
+        scheduler = Executors.newScheduledThreadPool(storageProbes.size(), runnable -> {
+            Thread thread = new Thread(runnable, "kumuluzee-health-storage-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (StorageProbe probe : storageProbes) {
+            scheduler.scheduleWithFixedDelay(probe::probe, 0, probe.getConfiguration().getInterval(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void stopProbes() {
+        List<StorageProbe> previousProbes = probes;
+        probes = Collections.emptyList();
+
+        if (scheduler != null) {
+            // running probes are not interrupted, since an interrupt closes the file channel of the probe
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(getStopTimeout(previousProbes), TimeUnit.MILLISECONDS)) {
+                    LOG.fine("Storage probes did not finish before they were stopped.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+
+        previousProbes.forEach(StorageProbe::close);
+    }
+
+    private long getStopTimeout(List<StorageProbe> storageProbes) {
+        // a probe running for longer than the latency thresholds is reported as stalled anyway
+        return storageProbes.stream()
+                .map(StorageProbe::getConfiguration)
+                .mapToLong(configuration -> Math.max(configuration.getMaxWriteLatency(),
+                        configuration.getMaxFsyncLatency()))
+                .reduce(STOP_TIMEOUT_MS, Math::max);
+    }
+
+    private StorageProbeConfiguration getConfiguration(ConfigurationUtil configurationUtil, String prefix) {
+        String path = configurationUtil.get(prefix + ".path").orElse(System.getProperty("java.io.tmpdir"));
+
+        return new StorageProbeConfiguration(
+                configurationUtil.get(prefix + ".name").orElse(path),
+                path,
+                configurationUtil.getLong(prefix + ".interval-ms").orElse(DEFAULT_INTERVAL_MS),
+                configurationUtil.getInteger(prefix + ".file-size-bytes").orElse(DEFAULT_FILE_SIZE_BYTES),
+                configurationUtil.getInteger(prefix + ".samples").orElse(DEFAULT_SAMPLES),
+                configurationUtil.getInteger(prefix + ".percentile").orElse(DEFAULT_PERCENTILE),
+                configurationUtil.getLong(prefix + ".max-write-latency-ms").orElse(0L),
+                configurationUtil.getLong(prefix + ".degraded-write-latency-ms").orElse(0L),
+                configurationUtil.getLong(prefix + ".max-fsync-latency-ms").orElse(0L),
+                configurationUtil.getLong(prefix + ".degraded-fsync-latency-ms").orElse(0L));
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder healthCheckResponseBuilder = HealthCheckResponse
+                .named(StorageLatencyHealthCheck.class.getSimpleName())
+                .up();
+
+        for (StorageProbe probe : probes) {
+            probe.check().applyTo(healthCheckResponseBuilder);
+        }
+
+        return healthCheckResponseBuilder.build();
+    }
+
+    @Override
+    public String name() {
+        return kumuluzBaseHealthConfigPath + "storage-latency-health-check";
+    }
+
+    @Override
+    public boolean initSuccess() {
+        return true;
+    }
+}
+
+/**
+ * Probe of a single path. The probe file is created and preallocated once, every probe overwrites its content with a
+ * positional write, forces it to the storage device and reads it back. Latencies of the latest probes are kept in ring
+ * buffers.
+ */
+class StorageProbe {
+
+    private static final Logger LOG = Logger.getLogger(StorageProbe.class.getName());
+
+    private final StorageProbeConfiguration configuration;
+
+    private final ByteBuffer writeBuffer;
+    private final ByteBuffer readBuffer;
+
+    private final long[] writeLatencies;
+    private final long[] fsyncLatencies;
+    private int nextSample;
+    private int sampleCount;
+    private long sequence;
+
+    private Path file;
+    private FileChannel channel;
+    private String error;
+    private boolean closed;
+
+    // start of the running probe in nanoseconds or 0 when no probe is running
+    private volatile long probeStart;
+
+    StorageProbe(StorageProbeConfiguration configuration) {
+        this.configuration = configuration;
+        this.writeBuffer = ByteBuffer.allocateDirect(configuration.getFileSize());
+        this.readBuffer = ByteBuffer.allocateDirect(configuration.getFileSize());
+        this.writeLatencies = new long[configuration.getSamples()];
+        this.fsyncLatencies = new long[configuration.getSamples()];
+    }
+
+    StorageProbeConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Writes, fsyncs and reads back the probe file and records the latencies.
+     */
+    void probe() {
+        probeStart = System.nanoTime();
+
+        try {
+            FileChannel fileChannel = getChannel();
+
+            // probes differ in content, so the write is never a no-op
+            writeBuffer.clear();
+            writeBuffer.putLong(0, ++sequence);
+
+            long start = System.nanoTime();
+            while (writeBuffer.hasRemaining()) {
+                fileChannel.write(writeBuffer, writeBuffer.position());
+            }
+            long written = System.nanoTime();
+            fileChannel.force(false);
+            long synced = System.nanoTime();
+
+            readBuffer.clear();
+            while (readBuffer.hasRemaining() && fileChannel.read(readBuffer, readBuffer.position()) >= 0) {
+                // read until the buffer is full
+            }
+            writeBuffer.flip();
+            readBuffer.flip();
+            if (!readBuffer.equals(writeBuffer)) {
+                throw new IOException("Content read from the probe file does not match the written content.");
+            }
+
+            synchronized (this) {
+                writeLatencies[nextSample] = written - start;
+                fsyncLatencies[nextSample] = synced - written;
+                nextSample = (nextSample + 1) % writeLatencies.length;
+                sampleCount = Math.min(sampleCount + 1, writeLatencies.length);
+                error = null;
+            }
+        } catch (Exception exception) {
+            boolean stopped;
+            synchronized (this) {
+                stopped = closed;
+                if (!stopped) {
+                    error = exception.getMessage() != null ? exception.getMessage() : exception.getClass().getName();
+                    closeChannel();
+                }
+            }
+
+            // the file channel is closed when a running probe is stopped
+            if (stopped) {
+                LOG.log(Level.FINE, "Storage probe of " + configuration.getPath() + " was stopped.", exception);
+            } else {
+                LOG.log(Level.SEVERE, "An exception occurred when trying to probe storage of " +
+                        configuration.getPath() + ".", exception);
+            }
+        } finally {
+            probeStart = 0;
+        }
+    }
+
+    private FileChannel getChannel() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Probe is closed.");
+            }
+
+            if (channel != null) {
+                return channel;
+            }
+        }
+
+        // the file is opened and preallocated without holding the lock, so a stalled device does not block the check
+        Path probeFile = file;
+        if (probeFile == null) {
+            probeFile = Files.createTempFile(Paths.get(configuration.getPath()), ".kumuluzee-health-", ".probe");
+            probeFile.toFile().deleteOnExit();
+
+            synchronized (this) {
+                file = probeFile;
+            }
+        }
+
+        FileChannel fileChannel = FileChannel.open(probeFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            // preallocate the file, so probes do not allocate blocks or change the file size
+            ByteBuffer zeros = ByteBuffer.allocate(configuration.getFileSize());
+            while (zeros.hasRemaining()) {
+                fileChannel.write(zeros, zeros.position());
+            }
+            fileChannel.force(true);
+        } catch (IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+
+        synchronized (this) {
+            channel = fileChannel;
+
+            if (closed) {
+                close();
+                throw new IOException("Probe is closed.");
+            }
+        }
+
+        return fileChannel;
+    }
+
+    synchronized TargetResult check() {
+        String name = configuration.getName();
+        TargetResult result = new TargetResult();
+
+        long start = probeStart;
+        long running = start != 0 ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) : 0;
+        long stallThreshold = Math.max(configuration.getMaxWriteLatency(), configuration.getMaxFsyncLatency());
+
+        boolean degraded = false;
+        if (sampleCount > 0) {
+            long writeMedian = percentile(writeLatencies, 50);
+            long writePercentile = percentile(writeLatencies, configuration.getPercentile());
+            long fsyncMedian = percentile(fsyncLatencies, 50);
+            long fsyncPercentile = percentile(fsyncLatencies, configuration.getPercentile());
+
+            result.withData(name + ".write-p50-ms", writeMedian);
+            result.withData(name + ".write-p" + configuration.getPercentile() + "-ms", writePercentile);
+            result.withData(name + ".fsync-p50-ms", fsyncMedian);
+            result.withData(name + ".fsync-p" + configuration.getPercentile() + "-ms", fsyncPercentile);
+
+            if (exceeds(writePercentile, configuration.getMaxWriteLatency()) ||
+                    exceeds(fsyncPercentile, configuration.getMaxFsyncLatency())) {
+                LOG.severe(String.format("Storage latency of %s exceeds the threshold: write %d ms, fsync %d ms.",
+                        configuration.getPath(), writePercentile, fsyncPercentile));
+                return result.down(name);
+            }
+
+            if (exceeds(writePercentile, configuration.getDegradedWriteLatency()) ||
+                    exceeds(fsyncPercentile, configuration.getDegradedFsyncLatency())) {
+                LOG.warning(String.format("Storage latency of %s exceeds the degraded threshold: write %d ms, " +
+                        "fsync %d ms.", configuration.getPath(), writePercentile, fsyncPercentile));
+                degraded = true;
+            }
+        }
+
+        if (error != null) {
+            return result.withData(name + ".error", error).down(name);
+        }
+
+        // a probe blocked for longer than the thresholds is not in the samples yet
+        if (exceeds(running, stallThreshold)) {
+            LOG.severe(String.format("Storage probe of %s is running for %d ms.", configuration.getPath(), running));
+            return result.withData(name + ".running-probe-ms", running).down(name);
+        }
+
+        return degraded ? result.degraded(name) : result.up(name);
+    }
+
+    /**
+     * Returns the percentile of the recorded latencies in milliseconds using the nearest rank method.
+     */
+    private long percentile(long[] latencies, int percentile) {
+        long[] sorted = Arrays.copyOf(latencies, sampleCount);
+        Arrays.sort(sorted);
+
+        int rank = (int) Math.ceil(percentile / 100.0 * sampleCount);
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(rank, sampleCount) - 1)]);
+    }
+
+    private static boolean exceeds(long value, long threshold) {
+        return threshold > 0 && value > threshold;
+    }
+
+    synchronized void close() {
+        closed = true;
+        closeChannel();
+
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException exception) {
+                LOG.log(Level.FINE, "An exception occurred when trying to delete the probe file " + file + ".",
+                        exception);
+            }
+            file = null;
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException exception) {
+                LOG.log(Level.FINE, "An exception occurred when trying to close the probe file.", exception);
+            }
+            channel = null;
+        }
+    }
+}
+
+class StorageProbeConfiguration {
+
+    private final String name;
+    private final String path;
+    private final long interval;
+    private final int fileSize;
+    private final int samples;
+    private final int percentile;
+    private final long maxWriteLatency;
+    private final long degradedWriteLatency;
+    private final long maxFsyncLatency;
+    private final long degradedFsyncLatency;
+
+    StorageProbeConfiguration(String name, String path, long interval, int fileSize, int samples, int percentile,
+                              long maxWriteLatency, long degradedWriteLatency, long maxFsyncLatency,
+                              long degradedFsyncLatency) {
+        this.name = name;
+        this.path = path;
+        this.interval = interval;
+        this.fileSize = Math.max(fileSize, Long.BYTES);
+        this.samples = Math.max(samples, 1);
+        this.percentile = Math.max(1, Math.min(percentile, 100));
+        this.maxWriteLatency = maxWriteLatency;
+        this.degradedWriteLatency = degradedWriteLatency;
+        this.maxFsyncLatency = maxFsyncLatency;
+        this.degradedFsyncLatency = degradedFsyncLatency;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public int getFileSize() {
+        return fileSize;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public int getPercentile() {
+        return percentile;
+    }
+
+    public long getMaxWriteLatency() {
+        return maxWriteLatency;
+    }
+
+    public long getDegradedWriteLatency() {
+        return degradedWriteLatency;
+    }
+
+    public long getMaxFsyncLatency() {
+        return maxFsyncLatency;
+    }
+
+    public long getDegradedFsyncLatency() {
+        return degradedFsyncLatency;
+    }
+}
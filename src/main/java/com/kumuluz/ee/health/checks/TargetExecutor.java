@@ -0,0 +1,120 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Evaluates the targets of multi-target health checks concurrently. The calling thread evaluates targets together with
+ * at most {@code parallelism - 1} threads of a shared pool, so the duration of a health check is bounded by the slowest
+ * targets instead of the sum of all targets.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+final class TargetExecutor {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "kumuluzee-health-check-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TargetExecutor() {
+    }
+
+    /**
+     * Applies the function to all targets and returns results in the order of targets.
+     *
+     * @param targets     targets to evaluate
+     * @param parallelism maximum number of targets evaluated at the same time
+     * @param function    function evaluating a single target
+     */
+    static <T, R> List<R> map(List<T> targets, int parallelism, Function<T, R> function) {
+        int workers = Math.min(parallelism, targets.size()) - 1;
+
+        if (workers <= 0) {
+            List<R> results = new ArrayList<>(targets.size());
+            for (T target : targets) {
+                results.add(function.apply(target));
+            }
+            return results;
+        }
+
+        Object[] results = new Object[targets.size()];
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicInteger nextIndex = new AtomicInteger();
+
+        Runnable worker = () -> {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < targets.size()) {
+                try {
+                    results[index] = function.apply(targets.get(index));
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        CountDownLatch finished = new CountDownLatch(workers);
+        for (int i = 0; i < workers; i++) {
+            try {
+                EXECUTOR.execute(() -> {
+                    try {
+                        worker.run();
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                finished.countDown();
+            }
+        }
+
+        worker.run();
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating health check targets.", e);
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> resultList = (List<R>) (List<?>) Arrays.asList(results);
+        return resultList;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of a single target of a multi-target health check. Results are evaluated concurrently and merged into the
+ * health check response by the calling thread.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+class TargetResult {
+
+    // Status of a target, which is available but slower than its degraded threshold
+    static final String DEGRADED = "DEGRADED";
+
+    private final Map<String, Object> data = new LinkedHashMap<>();
+
+    private boolean up = true;
+
+    TargetResult withData(String key, String value) {
+        data.put(key, value);
+        return this;
+    }
+
+    TargetResult withData(String key, long value) {
+        data.put(key, value);
+        return this;
+    }
+
+    TargetResult up(String key) {
+        return withData(key, HealthCheckResponse.Status.UP.toString());
+    }
+
+    TargetResult degraded(String key) {
+        return withData(key, DEGRADED);
+    }
+
+    TargetResult down(String key) {
+        up = false;
+        return withData(key, HealthCheckResponse.Status.DOWN.toString());
+    }
+
+    TargetResult down() {
+        up = false;
+        return this;
+    }
+
+    boolean isUp() {
+        return up;
+    }
+
+    void applyTo(HealthCheckResponseBuilder healthCheckResponseBuilder) {
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            if (entry.getValue() instanceof Long) {
+                healthCheckResponseBuilder.withData(entry.getKey(), (Long) entry.getValue());
+            } else {
+                healthCheckResponseBuilder.withData(entry.getKey(), entry.getValue().toString());
+            }
+        }
+
+        if (!up) {
+            healthCheckResponseBuilder.down();
+        }
+    }
+}
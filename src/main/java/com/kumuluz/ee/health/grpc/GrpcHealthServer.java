@@ -0,0 +1,105 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.grpc;
+
+import com.kumuluz.ee.health.HealthRegistry;
+import io.grpc.ManagedChannelProvider;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerProvider;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * gRPC server exposing the {@link GrpcHealthService}. Requires a gRPC transport (e.g. grpc-netty-shaded) on the
+ * classpath.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+public class GrpcHealthServer {
+
+    private static final Logger LOG = Logger.getLogger(GrpcHealthServer.class.getName());
+
+    private final int port;
+    private final long watchPeriodMs;
+
+    private GrpcHealthService healthService;
+    private Server server;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param port          port to listen on
+     * @param watchPeriodMs period in which watched services are evaluated in milliseconds
+     */
+    public GrpcHealthServer(int port, long watchPeriodMs) {
+        this.port = port;
+        this.watchPeriodMs = watchPeriodMs;
+    }
+
+    /**
+     * @return true if a gRPC server transport (e.g. grpc-netty-shaded) is available on the classpath
+     */
+    public static boolean isTransportAvailable() {
+        try {
+            ServerProvider.provider();
+            return true;
+        } catch (ManagedChannelProvider.ProviderNotFoundException e) {
+            return false;
+        }
+    }
+
+    public void start() throws IOException {
+        healthService = new GrpcHealthService(HealthRegistry.getInstance());
+        HealthRegistry.getInstance().addEvaluationListener(healthService);
+
+        server = ServerBuilder.forPort(port)
+                .addService(healthService)
+                .build()
+                .start();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kumuluzee-health-grpc-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(healthService::refreshWatchedServices, watchPeriodMs, watchPeriodMs,
+                TimeUnit.MILLISECONDS);
+
+        LOG.info("gRPC health server listening on port " + server.getPort());
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (healthService != null) {
+            HealthRegistry.getInstance().removeEvaluationListener(healthService);
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+}
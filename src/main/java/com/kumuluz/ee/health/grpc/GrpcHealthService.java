@@ -0,0 +1,221 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.grpc;
+
+import com.kumuluz.ee.health.HealthEvaluationListener;
+import com.kumuluz.ee.health.HealthRegistry;
+import com.kumuluz.ee.health.enums.HealthCheckType;
+import io.grpc.Status;
+import io.grpc.health.v1.HealthCheckRequest;
+import io.grpc.health.v1.HealthCheckResponse.ServingStatus;
+import io.grpc.health.v1.HealthGrpc;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of the gRPC Health Checking Protocol (grpc.health.v1.Health) backed by the {@link HealthRegistry}.
+ * <p>
+ * The empty service name represents all health checks, service names {@code liveness}, {@code readiness} and
+ * {@code startup} represent health checks of the type and any other service name represents a single health check with
+ * that name. Watchers are notified only when the serving status of their service changes. Statuses are pushed when
+ * health checks of a type are evaluated and when {@link #refreshWatchedServices()} is invoked.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+public class GrpcHealthService extends HealthGrpc.HealthImplBase implements HealthEvaluationListener {
+
+    private static final Logger LOG = Logger.getLogger(GrpcHealthService.class.getName());
+
+    private final HealthRegistry healthRegistry;
+
+    private final ConcurrentMap<String, Set<StatusWatcher>> watchers = new ConcurrentHashMap<>();
+
+    public GrpcHealthService(HealthRegistry healthRegistry) {
+        this.healthRegistry = healthRegistry;
+    }
+
+    @Override
+    public void check(HealthCheckRequest request,
+                      StreamObserver<io.grpc.health.v1.HealthCheckResponse> responseObserver) {
+        Optional<ServingStatus> status = evaluate(request.getService());
+
+        if (!status.isPresent()) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("Unknown service " + request.getService() + ".")
+                    .asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(toResponse(status.get()));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void watch(HealthCheckRequest request,
+                      StreamObserver<io.grpc.health.v1.HealthCheckResponse> responseObserver) {
+        String service = getWatchKey(request.getService());
+        StatusWatcher watcher = new StatusWatcher(responseObserver);
+
+        if (responseObserver instanceof ServerCallStreamObserver) {
+            ((ServerCallStreamObserver<io.grpc.health.v1.HealthCheckResponse>) responseObserver)
+                    .setOnCancelHandler(() -> removeWatcher(service, watcher));
+        }
+
+        watchers.computeIfAbsent(service, k -> ConcurrentHashMap.newKeySet()).add(watcher);
+
+        // current status is sent immediately, later statuses only when they change
+        watcher.send(evaluate(service).orElse(ServingStatus.SERVICE_UNKNOWN));
+    }
+
+    @Override
+    public void onEvaluation(HealthCheckType type, List<HealthCheckResponse> results) {
+        ServingStatus status = toServingStatus(results);
+
+        if (type == HealthCheckType.BOTH) {
+            notifyWatchers("", status);
+        }
+        notifyWatchers(type.name().toLowerCase(), status);
+    }
+
+    /**
+     * Evaluates health checks of all watched services and notifies watchers about changed statuses.
+     */
+    public void refreshWatchedServices() {
+        for (Map.Entry<String, Set<StatusWatcher>> entry : watchers.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+
+            try {
+                String service = entry.getKey();
+                Optional<ServingStatus> status = evaluate(service);
+
+                // evaluations of types notify watchers through the evaluation listener
+                if (getType(service) == null) {
+                    notifyWatchers(service, status.orElse(ServingStatus.SERVICE_UNKNOWN));
+                }
+            } catch (Exception exception) {
+                LOG.log(Level.SEVERE, "An exception occurred when trying to evaluate watched health checks.",
+                        exception);
+            }
+        }
+    }
+
+    private Optional<ServingStatus> evaluate(String service) {
+        HealthCheckType type = getType(service);
+
+        if (type != null) {
+            return Optional.of(toServingStatus(healthRegistry.getResults(type)));
+        }
+
+        return healthRegistry.getResult(service)
+                .map(result -> toServingStatus(Collections.singletonList(result)));
+    }
+
+    private HealthCheckType getType(String service) {
+        if (service.isEmpty()) {
+            return HealthCheckType.BOTH;
+        }
+
+        return HealthCheckType.parse(service);
+    }
+
+    /**
+     * Type services are matched regardless of case, so their watchers are stored under the lower case type name, which
+     * is notified by {@link #onEvaluation(HealthCheckType, List)}.
+     */
+    private String getWatchKey(String service) {
+        HealthCheckType type = getType(service);
+
+        return type != null && !service.isEmpty() ? type.name().toLowerCase() : service;
+    }
+
+    private void notifyWatchers(String service, ServingStatus status) {
+        Set<StatusWatcher> serviceWatchers = watchers.get(service);
+
+        if (serviceWatchers != null) {
+            for (StatusWatcher watcher : serviceWatchers) {
+                if (!watcher.send(status)) {
+                    removeWatcher(service, watcher);
+                }
+            }
+        }
+    }
+
+    private void removeWatcher(String service, StatusWatcher watcher) {
+        watchers.computeIfPresent(service, (k, serviceWatchers) -> {
+            serviceWatchers.remove(watcher);
+            return serviceWatchers.isEmpty() ? null : serviceWatchers;
+        });
+    }
+
+    private static ServingStatus toServingStatus(List<HealthCheckResponse> results) {
+        return results.stream().anyMatch(result -> HealthCheckResponse.Status.DOWN.equals(result.getStatus()))
+                ? ServingStatus.NOT_SERVING : ServingStatus.SERVING;
+    }
+
+    private static io.grpc.health.v1.HealthCheckResponse toResponse(ServingStatus status) {
+        return io.grpc.health.v1.HealthCheckResponse.newBuilder().setStatus(status).build();
+    }
+
+    private static class StatusWatcher {
+
+        private final StreamObserver<io.grpc.health.v1.HealthCheckResponse> responseObserver;
+
+        private ServingStatus lastStatus;
+
+        StatusWatcher(StreamObserver<io.grpc.health.v1.HealthCheckResponse> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
+
+        /**
+         * Sends the status if it differs from the last sent status.
+         *
+         * @return false if the watcher is no longer active
+         */
+        synchronized boolean send(ServingStatus status) {
+            if (status == lastStatus) {
+                return true;
+            }
+
+            try {
+                responseObserver.onNext(toResponse(status));
+                lastStatus = status;
+                return true;
+            } catch (Exception e) {
+                LOG.log(Level.FINE, "Could not send health status to watcher.", e);
+                return false;
+            }
+        }
+    }
+}
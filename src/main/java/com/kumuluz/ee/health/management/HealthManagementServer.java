@@ -0,0 +1,195 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.management;
+
+import com.kumuluz.ee.health.HealthEndpoint;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves health endpoints on a dedicated port using the JDK built-in HTTP server. The server has its own small thread
+ * pool, so health probes are answered even when the thread pool of the application server is saturated. The pool is a
+ * {@link ForkJoinPool}, so health checks evaluated in parallel by the {@link com.kumuluz.ee.health.HealthRegistry}
+ * run on its threads instead of the common pool shared with the application.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+public class HealthManagementServer {
+
+    private static final Logger LOG = Logger.getLogger(HealthManagementServer.class.getName());
+
+    private static final int SC_BAD_REQUEST = 400;
+
+    private final String host;
+    private final int port;
+    private final int threads;
+    private final String mapping;
+
+    private HttpServer httpServer;
+    private ExecutorService executor;
+
+    /**
+     * @param host    host to bind to
+     * @param port    port to listen on
+     * @param threads number of threads serving requests
+     * @param mapping path of the health endpoints, e.g. /health
+     */
+    public HealthManagementServer(String host, int port, int threads, String mapping) {
+        this.host = host;
+        this.port = port;
+        this.threads = threads;
+        this.mapping = mapping;
+    }
+
+    public void start() throws IOException {
+        HealthEndpoint healthEndpoint = new HealthEndpoint();
+
+        // parallel streams started on threads of a fork join pool are executed in that pool
+        executor = new ForkJoinPool(threads, new ManagementThreadFactory(), null, false);
+
+        httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+        httpServer.createContext(mapping, exchange -> handle(exchange, healthEndpoint));
+        httpServer.setExecutor(executor);
+        httpServer.start();
+
+        LOG.info("Health management server listening on " + host + ":" + httpServer.getAddress().getPort() +
+                mapping);
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the port the server is listening on. Useful when configured port is 0.
+     *
+     * @return port number
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, HealthEndpoint healthEndpoint) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            // contexts match by prefix, so /healthz would otherwise be served as well
+            if (!path.equals(mapping) && !path.startsWith(mapping + "/")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            String pathInfo = path.length() > mapping.length() ? path.substring(mapping.length()) : null;
+
+            Map<String, String[]> parameters;
+            try {
+                parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException exception) {
+                // malformed percent-encoding
+                exchange.sendResponseHeaders(SC_BAD_REQUEST, -1);
+                return;
+            }
+
+            HealthEndpoint.Response response = healthEndpoint.handle(pathInfo, parameters,
+                    exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+
+            response.getHeaders().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+
+            byte[] body = response.getBody();
+            if (body == null || "HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(response.getStatus(), -1);
+            } else {
+                exchange.sendResponseHeaders(response.getStatus(), body.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            }
+        } catch (IOException exception) {
+            LOG.log(Level.FINE, "Cannot write health response.", exception);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Map<String, String[]> parseQuery(String rawQuery) {
+        Map<String, List<String>> parameters = new HashMap<>();
+
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+
+                int separator = pair.indexOf('=');
+                String name = separator < 0 ? pair : pair.substring(0, separator);
+                String value = separator < 0 ? "" : pair.substring(separator + 1);
+
+                parameters.computeIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8), k -> new ArrayList<>())
+                        .add(URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+
+        Map<String, String[]> result = new HashMap<>();
+        parameters.forEach((name, values) -> result.put(name, values.toArray(new String[0])));
+
+        return result;
+    }
+
+    private static class ManagementThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+            };
+            thread.setName("kumuluzee-health-management-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.status;
+
+import com.kumuluz.ee.health.HealthEvaluationListener;
+import com.kumuluz.ee.health.enums.HealthCheckType;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Publishes health status into a small memory-mapped file, which can be read by exec probes and sidecars without
+ * connecting to the health endpoints. The file is updated on every evaluation of health checks of a type, which only
+ * writes to the mapped pages.
+ * <p>
+ * The file has a fixed layout of {@link #FILE_SIZE} bytes in little-endian byte order:
+ * <pre>
+ * offset  size  field
+ *  0      4     magic number 0x4B485346
+ *  4      4     layout version
+ *  8      8     sequence, odd while the file is being updated, the version is sequence / 2
+ * 16      16    aggregate (liveness, readiness and startup) status slot
+ * 32      16    liveness status slot
+ * 48      16    readiness status slot
+ * 64      16    startup status slot
+ * </pre>
+ * Each status slot contains the status (4 bytes, 0 = unknown, 1 = UP, 2 = DOWN), 4 reserved bytes and the time of the
+ * last update in epoch milliseconds (8 bytes). The file can be read with {@link HealthStatusFileReader}.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+public class HealthStatusFilePublisher implements HealthEvaluationListener {
+
+    public static final int MAGIC = 0x4B485346;
+    public static final int LAYOUT_VERSION = 1;
+
+    public static final int STATUS_UNKNOWN = 0;
+    public static final int STATUS_UP = 1;
+    public static final int STATUS_DOWN = 2;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int LAYOUT_VERSION_OFFSET = 4;
+    static final int SEQUENCE_OFFSET = 8;
+    static final int SLOTS_OFFSET = 16;
+    static final int SLOT_SIZE = 16;
+    static final int SLOT_COUNT = 4;
+    static final int FILE_SIZE = SLOTS_OFFSET + SLOT_SIZE * SLOT_COUNT;
+
+    static final int AGGREGATE_SLOT = 0;
+    static final int LIVENESS_SLOT = 1;
+    static final int READINESS_SLOT = 2;
+    static final int STARTUP_SLOT = 3;
+
+    static final VarHandle LONG_HANDLE = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+
+    private final Path path;
+    private final int[] statuses = new int[SLOT_COUNT];
+
+    private MappedByteBuffer buffer;
+
+    public HealthStatusFilePublisher(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Creates the file if it does not exist, maps it into memory and resets its content.
+     *
+     * @throws IOException if the file cannot be mapped
+     */
+    public synchronized void open() throws IOException {
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        long sequence = beginUpdate();
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(LAYOUT_VERSION_OFFSET, LAYOUT_VERSION);
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            writeSlot(slot, STATUS_UNKNOWN, 0);
+        }
+        endUpdate(sequence);
+    }
+
+    @Override
+    public synchronized void onEvaluation(HealthCheckType type, List<HealthCheckResponse> results) {
+        if (buffer == null) {
+            return;
+        }
+
+        int status = results.stream().anyMatch(result -> HealthCheckResponse.Status.DOWN.equals(result.getStatus()))
+                ? STATUS_DOWN : STATUS_UP;
+        long now = System.currentTimeMillis();
+
+        long sequence = beginUpdate();
+        if (type == HealthCheckType.BOTH) {
+            writeSlot(AGGREGATE_SLOT, status, now);
+        } else {
+            writeSlot(getSlot(type), status, now);
+            // aggregate is the worst known status of liveness, readiness and startup
+            writeSlot(AGGREGATE_SLOT, getWorstTypeStatus(), now);
+        }
+        endUpdate(sequence);
+    }
+
+    private int getSlot(HealthCheckType type) {
+        switch (type) {
+            case LIVENESS:
+                return LIVENESS_SLOT;
+            case READINESS:
+                return READINESS_SLOT;
+            case STARTUP:
+                return STARTUP_SLOT;
+            default:
+                return AGGREGATE_SLOT;
+        }
+    }
+
+    private int getWorstTypeStatus() {
+        int worst = STATUS_UNKNOWN;
+        for (int slot = LIVENESS_SLOT; slot <= STARTUP_SLOT; slot++) {
+            worst = Math.max(worst, statuses[slot]);
+        }
+
+        return worst;
+    }
+
+    private long beginUpdate() {
+        long sequence = (long) LONG_HANDLE.get(buffer, SEQUENCE_OFFSET);
+        if ((sequence & 1) != 0) {
+            // previous process was terminated during an update
+            sequence++;
+        }
+
+        LONG_HANDLE.setVolatile(buffer, SEQUENCE_OFFSET, sequence + 1);
+        VarHandle.storeStoreFence();
+
+        return sequence;
+    }
+
+    private void endUpdate(long sequence) {
+        LONG_HANDLE.setRelease(buffer, SEQUENCE_OFFSET, sequence + 2);
+    }
+
+    private void writeSlot(int slot, int status, long updatedAt) {
+        int offset = SLOTS_OFFSET + slot * SLOT_SIZE;
+
+        statuses[slot] = status;
+        buffer.putInt(offset, status);
+        buffer.putInt(offset + 4, 0);
+        buffer.putLong(offset + 8, updatedAt);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.status;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static com.kumuluz.ee.health.status.HealthStatusFilePublisher.*;
+
+/**
+ * Reads health status from the file written by {@link HealthStatusFilePublisher}.
+ * <p>
+ * Can be used as an exec probe:
+ * <pre>
+ * java -cp kumuluzee-health.jar com.kumuluz.ee.health.status.HealthStatusFileReader FILE [TYPE] [MAX_AGE_S]
+ * </pre>
+ * where TYPE is one of {@code both}, {@code liveness}, {@code readiness} or {@code startup}. The exit code is 0 if the
+ * status is UP, 1 if the status is DOWN and 2 if the status is unknown, older than MAX_AGE_S seconds or cannot be read.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+public class HealthStatusFileReader {
+
+    private static final int MAX_READ_ATTEMPTS = 1000;
+    private static final int SPIN_READ_ATTEMPTS = 100;
+
+    private HealthStatusFileReader() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: HealthStatusFileReader FILE [both|liveness|readiness|startup] [MAX_AGE_S]");
+            System.exit(2);
+        }
+
+        try {
+            int slot = args.length > 1 ? getSlot(args[1]) : AGGREGATE_SLOT;
+            long maxAgeMs = args.length > 2 ? Long.parseLong(args[2]) * 1000 : -1;
+
+            long[] snapshot = read(Paths.get(args[0]));
+            String status = getStatus(snapshot, slot, maxAgeMs, System.currentTimeMillis());
+
+            System.out.println(status);
+            switch (status) {
+                case "UP":
+                    System.exit(0);
+                    break;
+                case "DOWN":
+                    System.exit(1);
+                    break;
+                default:
+                    System.exit(2);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not read health status: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Reads a consistent snapshot of the status file.
+     *
+     * @param path path of the status file
+     * @return array containing the version, followed by the status and the update time of every slot
+     * @throws IOException if the file cannot be read or has invalid format
+     */
+    public static long[] read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < FILE_SIZE) {
+                throw new IOException("Status file is too small.");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(LAYOUT_VERSION_OFFSET) != LAYOUT_VERSION) {
+            throw new IOException("Status file has unsupported format.");
+        }
+
+        long[] snapshot = new long[1 + SLOT_COUNT * 2];
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long sequence = (long) LONG_HANDLE.getAcquire(buffer, SEQUENCE_OFFSET);
+            if ((sequence & 1) != 0) {
+                // yield after spinning for a while, the writer may have been preempted during the update
+                if (attempt < SPIN_READ_ATTEMPTS) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+                continue;
+            }
+
+            for (int slot = 0; slot < SLOT_COUNT; slot++) {
+                int offset = SLOTS_OFFSET + slot * SLOT_SIZE;
+                snapshot[1 + slot * 2] = buffer.getInt(offset);
+                snapshot[2 + slot * 2] = buffer.getLong(offset + 8);
+            }
+
+            VarHandle.loadLoadFence();
+            if ((long) LONG_HANDLE.getVolatile(buffer, SEQUENCE_OFFSET) == sequence) {
+                snapshot[0] = sequence / 2;
+                return snapshot;
+            }
+        }
+
+        throw new IOException("Could not read consistent snapshot of the status file.");
+    }
+
+    /**
+     * Returns the status of a slot in the snapshot.
+     *
+     * @param snapshot snapshot returned by {@link #read(Path)}
+     * @param slot     index of the status slot
+     * @param maxAgeMs maximum age of the status in milliseconds, the age is not checked if negative
+     * @param now      current time in epoch milliseconds
+     * @return UP, DOWN, UNKNOWN or STALE if the status is older than the maximum age
+     */
+    static String getStatus(long[] snapshot, int slot, long maxAgeMs, long now) {
+        int status = (int) snapshot[1 + slot * 2];
+        long updatedAt = snapshot[2 + slot * 2];
+
+        if (status != STATUS_UNKNOWN && maxAgeMs >= 0 && now - updatedAt > maxAgeMs) {
+            return "STALE";
+        }
+
+        switch (status) {
+            case STATUS_UP:
+                return "UP";
+            case STATUS_DOWN:
+                return "DOWN";
+            default:
+                return "UNKNOWN";
+        }
+    }
+
+    static int getSlot(String type) {
+        switch (type.toLowerCase()) {
+            case "liveness":
+                return LIVENESS_SLOT;
+            case "readiness":
+                return READINESS_SLOT;
+            case "startup":
+                return STARTUP_SLOT;
+            case "both":
+                return AGGREGATE_SLOT;
+            default:
+                throw new IllegalArgumentException("Unknown health check type " + type + ".");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses health responses with gzip and keeps the last compressed body of every endpoint, so that unchanged health
+ * responses are not compressed again on every request.
+ *
+ * @author agent
+ * @since 2.5.0
+ */
+public class GzipResponseCache {
+
+    private final ConcurrentMap<String, CompressedBody> compressedBodies = new ConcurrentHashMap<>();
+
+    /**
+     * Returns gzip compressed body.
+     *
+     * @param key  key of the endpoint, the compressed body is not cached if null
+     * @param body uncompressed body
+     * @return compressed body
+     * @throws IOException if compression fails
+     */
+    public byte[] compress(String key, byte[] body) throws IOException {
+        if (key == null) {
+            return gzip(body);
+        }
+
+        CompressedBody cached = compressedBodies.get(key);
+        if (cached != null && Arrays.equals(cached.body, body)) {
+            return cached.compressed;
+        }
+
+        byte[] compressed = gzip(body);
+        compressedBodies.put(key, new CompressedBody(body, compressed));
+
+        return compressed;
+    }
+
+    /**
+     * Checks if gzip content coding is acceptable according to the Accept-Encoding header.
+     *
+     * @param acceptEncoding value of the Accept-Encoding header
+     * @return true if gzip is acceptable
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    if (parts[i].replace(" ", "").matches("q=0(\\.0{0,3})?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(body);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static class CompressedBody {
+
+        private final byte[] body;
+        private final byte[] compressed;
+
+        CompressedBody(byte[] body, byte[] compressed) {
+            this.body = body;
+            this.compressed = compressed;
+        }
+    }
+}
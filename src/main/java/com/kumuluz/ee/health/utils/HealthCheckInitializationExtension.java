@@ -23,6 +23,8 @@ package com.kumuluz.ee.health.utils;
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.health.HealthRegistry;
 import com.kumuluz.ee.health.annotations.BuiltInHealthCheck;
+import com.kumuluz.ee.health.annotations.HealthGroup;
+import com.kumuluz.ee.health.annotations.HealthGroups;
 import com.kumuluz.ee.health.checks.KumuluzHealthCheck;
 import com.kumuluz.ee.health.enums.HealthCheckType;
 import org.eclipse.microprofile.health.HealthCheck;
@@ -33,10 +35,13 @@ import org.eclipse.microprofile.health.Startup;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.Initialized;
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Any;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.Extension;
 import javax.enterprise.util.AnnotationLiteral;
+import java.lang.annotation.Annotation;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -66,6 +71,43 @@ public class HealthCheckInitializationExtension implements Extension {
         }, HealthCheckType.READINESS);
         registerHealthCheckBeans(beanManager, new AnnotationLiteral<Startup>() {
         }, HealthCheckType.STARTUP);
+
+        // register beans that are members of health check groups
+        registerHealthCheckGroupBeans(beanManager);
+    }
+
+    private void registerHealthCheckGroupBeans(BeanManager beanManager) {
+        Set<Bean<?>> beans = beanManager.getBeans(HealthCheck.class, new AnnotationLiteral<Any>() {
+        });
+
+        for (Bean<?> bean : beans) {
+            Set<String> groupNames = getHealthGroupNames(bean);
+            if (groupNames.isEmpty()) {
+                continue;
+            }
+
+            HealthCheck healthCheckBean = (HealthCheck) beanManager.getReference(bean, HealthCheck.class,
+                    beanManager.createCreationalContext(bean));
+            for (String groupName : groupNames) {
+                HealthRegistry.getInstance().registerInGroup(groupName, getHealthCheckName(bean), healthCheckBean);
+            }
+        }
+    }
+
+    private Set<String> getHealthGroupNames(Bean<?> bean) {
+        Set<String> groupNames = new LinkedHashSet<>();
+
+        for (Annotation qualifier : bean.getQualifiers()) {
+            if (qualifier instanceof HealthGroup) {
+                groupNames.add(((HealthGroup) qualifier).value());
+            } else if (qualifier instanceof HealthGroups) {
+                for (HealthGroup healthGroup : ((HealthGroups) qualifier).value()) {
+                    groupNames.add(healthGroup.value());
+                }
+            }
+        }
+
+        return groupNames;
     }
 
     private void registerHealthCheckBeans(BeanManager beanManager, AnnotationLiteral qualifier, HealthCheckType type) {
@@ -87,10 +129,18 @@ public class HealthCheckInitializationExtension implements Extension {
             }
             HealthCheck healthCheckBean = (HealthCheck) beanManager.getReference(bean, HealthCheck.class,
                     beanManager.createCreationalContext(bean));
-            HealthRegistry.getInstance().register(healthCheckBean.getClass().getSimpleName(), healthCheckBean, hcType);
+            HealthRegistry.getInstance().register(getHealthCheckName(bean), healthCheckBean, hcType);
         }
     }
 
+    /**
+     * Returns the name of the health check used by the registry. References of normal scoped beans are client proxies,
+     * so the name is taken from the bean class instead of the reference.
+     */
+    private String getHealthCheckName(Bean<?> bean) {
+        return bean.getBeanClass().getSimpleName();
+    }
+
     private KumuluzHealthCheck getBuildInHealthCheckBeanInstance(Bean<?> bean) {
 
         if (KumuluzHealthCheck.class.isAssignableFrom(bean.getBeanClass())) {
@@ -49,6 +49,8 @@ public class DependencyAppender implements MavenDependencyAppender {
 
         libs.add("com.h2database:h2:" + versionsBundle.getString("h2-version"));
 
+        libs.add("redis.clients:jedis:" + versionsBundle.getString("jedis-version"));
+
         return libs;
     }
 }
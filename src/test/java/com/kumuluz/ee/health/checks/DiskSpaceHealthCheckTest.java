@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test sampling of the usable space and evaluation of thresholds of {@link DiskSpaceHealthCheck} volumes.
+ */
+public class DiskSpaceHealthCheckTest {
+
+    private static final long START = TimeUnit.DAYS.toNanos(1);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long MB = 1000000;
+    private static final long TOTAL = 1000000 * MB;
+
+    @Test
+    public void absoluteThresholdsShouldBeChecked() {
+        DiskVolume volume = volume(100, 200, 0, 0, 0, 0, 60);
+
+        Map<String, Object> data = check(volume, START, 500, 1000);
+        Assert.assertEquals(data.get("disk"), "UP");
+        Assert.assertEquals(data.get("disk.usable-bytes"), 500L);
+        Assert.assertEquals(data.get("disk.usable-percent"), 50L);
+
+        Assert.assertEquals(check(volume, START, 150, 1000).get("disk"), TargetResult.DEGRADED);
+        Assert.assertEquals(check(volume, START, 50, 1000).get("disk"), "DOWN");
+    }
+
+    @Test
+    public void percentThresholdsShouldBeChecked() {
+        DiskVolume volume = volume(0, 0, 10, 20, 0, 0, 60);
+
+        Assert.assertEquals(check(volume, START, 500, 1000).get("disk"), "UP");
+        Assert.assertEquals(check(volume, START, 150, 1000).get("disk"), TargetResult.DEGRADED);
+        Assert.assertEquals(check(volume, START, 50, 1000).get("disk"), "DOWN");
+    }
+
+    @Test
+    public void fillHorizonsShouldBeChecked() {
+        // usable space decreases by 1 MB per second
+        DiskVolume volume = volume(0, 0, 0, 0, 600, 3600, 60);
+        Map<String, Object> data = null;
+        for (int i = 0; i < 5; i++) {
+            data = check(volume, START + i * SECOND, (2000 - i) * MB, TOTAL);
+
+            if (i < 4) {
+                // not enough samples for an estimate
+                Assert.assertFalse(data.containsKey("disk.time-to-full-s"));
+                Assert.assertEquals(data.get("disk"), "UP");
+            }
+        }
+        assertTimeToFull(data, 1996);
+        Assert.assertEquals(data.get("disk"), TargetResult.DEGRADED);
+
+        volume = volume(0, 0, 0, 0, 600, 3600, 60);
+        for (int i = 0; i < 5; i++) {
+            data = check(volume, START + i * SECOND, (500 - i) * MB, TOTAL);
+        }
+        assertTimeToFull(data, 496);
+        Assert.assertEquals(data.get("disk"), "DOWN");
+    }
+
+    @Test
+    public void flatOrGrowingUsageShouldNotBeEstimated() {
+        DiskVolume flat = volume(0, 0, 0, 0, 600, 3600, 60);
+        DiskVolume growing = volume(0, 0, 0, 0, 600, 3600, 60);
+        Map<String, Object> flatData = null;
+        Map<String, Object> growingData = null;
+        for (int i = 0; i < 10; i++) {
+            flatData = check(flat, START + i * SECOND, 100 * MB, TOTAL);
+            growingData = check(growing, START + i * SECOND, (100 + i) * MB, TOTAL);
+        }
+
+        Assert.assertFalse(flatData.containsKey("disk.time-to-full-s"));
+        Assert.assertEquals(flatData.get("disk"), "UP");
+        Assert.assertFalse(growingData.containsKey("disk.time-to-full-s"));
+        Assert.assertEquals(growingData.get("disk"), "UP");
+    }
+
+    @Test
+    public void samplesShouldBeTakenOncePerInterval() {
+        // window of 60 s has a sample interval of 1 s, checks every 0.5 s only add every other sample
+        DiskVolume volume = volume(0, 0, 0, 0, 0, 0, 60);
+        Map<String, Object> data = null;
+        for (int i = 0; i < 8; i++) {
+            data = check(volume, START + i * SECOND / 2, (2000 - i) * MB, TOTAL);
+        }
+        Assert.assertFalse(data.containsKey("disk.time-to-full-s"));
+
+        data = check(volume, START + 4 * SECOND, 1992 * MB, TOTAL);
+        Assert.assertTrue(data.containsKey("disk.time-to-full-s"));
+    }
+
+    @Test
+    public void ringBufferShouldWrapAround() {
+        DiskVolume volume = volume(0, 0, 0, 0, 0, 0, 60);
+        Map<String, Object> data = null;
+        for (int i = 0; i < 150; i++) {
+            data = check(volume, START + i * SECOND, (2000 - i) * MB, TOTAL);
+        }
+        assertTimeToFull(data, 1851);
+
+        // decreasing samples leave the ring buffer, so the estimate is based on the latest samples only
+        for (int i = 150; i < 220; i++) {
+            data = check(volume, START + i * SECOND, 1850 * MB, TOTAL);
+        }
+        Assert.assertFalse(data.containsKey("disk.time-to-full-s"));
+
+        for (int i = 220; i < 300; i++) {
+            data = check(volume, START + i * SECOND, (1850 - 2 * (i - 219)) * MB, TOTAL);
+        }
+        assertTimeToFull(data, (1850 - 2 * 80) / 2);
+    }
+
+    @Test
+    public void samplesShouldBeKeptAcrossReloads() {
+        DiskVolume volume = volume(0, 0, 0, 0, 0, 0, 60);
+        for (int i = 0; i < 5; i++) {
+            check(volume, START + i * SECOND, (2000 - i) * MB, TOTAL);
+        }
+
+        DiskVolume reloaded = new DiskVolume(configuration(0, 0, 0, 0, 0, 0, 60), volume);
+        assertTimeToFull(check(reloaded, START + 5 * SECOND, 1995 * MB, TOTAL), 1995);
+
+        // samples are not kept when the window changes
+        DiskVolume changedWindow = new DiskVolume(configuration(0, 0, 0, 0, 0, 0, 120), volume);
+        Assert.assertFalse(check(changedWindow, START + 5 * SECOND, 1995 * MB, TOTAL)
+                .containsKey("disk.time-to-full-s"));
+    }
+
+    private static void assertTimeToFull(Map<String, Object> data, long expected) {
+        long timeToFull = (Long) data.get("disk.time-to-full-s");
+        Assert.assertTrue(Math.abs(timeToFull - expected) <= 1, timeToFull + " != " + expected);
+    }
+
+    private static Map<String, Object> check(DiskVolume volume, long time, long usableSpace, long totalSpace) {
+        HealthCheckResponseBuilder builder = HealthCheckResponse.named("DiskSpaceHealthCheck").up();
+        volume.check(time, usableSpace, totalSpace).applyTo(builder);
+
+        return builder.build().getData().orElseThrow(AssertionError::new);
+    }
+
+    private static DiskVolume volume(long threshold, long degradedThreshold, double thresholdPercent,
+                                     double degradedThresholdPercent, long fillHorizon, long degradedFillHorizon,
+                                     long fillWindow) {
+        return new DiskVolume(configuration(threshold, degradedThreshold, thresholdPercent, degradedThresholdPercent,
+                fillHorizon, degradedFillHorizon, fillWindow), null);
+    }
+
+    private static DiskVolumeConfiguration configuration(long threshold, long degradedThreshold,
+                                                         double thresholdPercent, double degradedThresholdPercent,
+                                                         long fillHorizon, long degradedFillHorizon,
+                                                         long fillWindow) {
+        return new DiskVolumeConfiguration("disk", "/", threshold, degradedThreshold, thresholdPercent,
+                degradedThresholdPercent, fillHorizon, degradedFillHorizon, fillWindow);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.checks;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test evaluation of Mongo server status against the thresholds of {@link MongoServerHealthCheck}.
+ */
+public class MongoServerHealthCheckTest {
+
+    // Default thresholds of the health check
+    private static final MongoServerConfiguration CONFIGURATION = new MongoServerConfiguration("mongo", 60, 10,
+            95.0, 80.0, -1.0, 95.0, 20.0, 10.0);
+
+    private static final long NOW = System.currentTimeMillis();
+
+    @Test
+    public void replicaSetWithoutPrimaryShouldBeDown() {
+        Map<String, Object> data = evaluate(replicaSetStatus(member("SECONDARY", NOW), member("SECONDARY", NOW)),
+                new Document());
+
+        Assert.assertEquals(data.get("mongo"), "DOWN");
+        Assert.assertFalse(data.containsKey("mongo.replication-lag-s"));
+    }
+
+    @Test
+    public void replicationLagShouldBeCheckedAgainstThresholds() {
+        Map<String, Object> data = evaluate(replicaSetStatus(member("PRIMARY", NOW),
+                member("SECONDARY", NOW - 5000)), new Document());
+        Assert.assertEquals(data.get("mongo.replication-lag-s"), 5L);
+        Assert.assertEquals(data.get("mongo"), "UP");
+
+        // lag of the slowest secondary is reported
+        data = evaluate(replicaSetStatus(member("PRIMARY", NOW), member("SECONDARY", NOW - 5000),
+                member("SECONDARY", NOW - 30000)), new Document());
+        Assert.assertEquals(data.get("mongo.replication-lag-s"), 30L);
+        Assert.assertEquals(data.get("mongo"), TargetResult.DEGRADED);
+
+        data = evaluate(replicaSetStatus(member("PRIMARY", NOW), member("SECONDARY", NOW - 90000)),
+                new Document());
+        Assert.assertEquals(data.get("mongo.replication-lag-s"), 90L);
+        Assert.assertEquals(data.get("mongo"), "DOWN");
+    }
+
+    @Test
+    public void connectionsPercentShouldBeCheckedAgainstThresholds() {
+        Map<String, Object> data = evaluate(null, serverStatus(10, 90));
+        Assert.assertEquals(data.get("mongo.connections"), 10L);
+        Assert.assertEquals(data.get("mongo.connections-percent"), 10L);
+        Assert.assertEquals(data.get("mongo"), "UP");
+
+        data = evaluate(null, serverStatus(85, 15));
+        Assert.assertEquals(data.get("mongo.connections-percent"), 85L);
+        Assert.assertEquals(data.get("mongo"), TargetResult.DEGRADED);
+
+        data = evaluate(null, serverStatus(97, 3));
+        Assert.assertEquals(data.get("mongo.connections-percent"), 97L);
+        Assert.assertEquals(data.get("mongo"), "DOWN");
+    }
+
+    @Test
+    public void cacheShouldBeCheckedAgainstThresholds() {
+        Map<String, Object> data = evaluate(null, serverStatus(50, 5, 5));
+        Assert.assertEquals(data.get("mongo.cache-percent"), 50L);
+        Assert.assertEquals(data.get("mongo.cache-dirty-percent"), 5L);
+        Assert.assertEquals(data.get("mongo"), "UP");
+
+        // maximum cache threshold is disabled by default
+        data = evaluate(null, serverStatus(100, 5, 5));
+        Assert.assertEquals(data.get("mongo.cache-percent"), 100L);
+        Assert.assertEquals(data.get("mongo"), TargetResult.DEGRADED);
+    }
+
+    @Test
+    public void dirtyCacheShouldBeCheckedAgainstThresholds() {
+        Map<String, Object> data = evaluate(null, serverStatus(50, 15, 5));
+        Assert.assertEquals(data.get("mongo.cache-dirty-percent"), 15L);
+        Assert.assertEquals(data.get("mongo"), TargetResult.DEGRADED);
+
+        data = evaluate(null, serverStatus(50, 25, 5));
+        Assert.assertEquals(data.get("mongo.cache-dirty-percent"), 25L);
+        Assert.assertEquals(data.get("mongo"), "DOWN");
+    }
+
+    @Test
+    public void standaloneServerShouldNotRequirePrimary() {
+        List<Document> commands = new ArrayList<>();
+        MongoServerStatus status = MongoServerStatus.read(command -> {
+            commands.add(command);
+            if (command.containsKey("replSetGetStatus")) {
+                throw commandException(76, "NoReplicationEnabled");
+            }
+            return serverStatus(10, 90);
+        });
+
+        Assert.assertFalse(status.isReplicaSet());
+        Assert.assertEquals(status.getReplicationLagMs(), -1L);
+
+        Map<String, Object> data = evaluate(status);
+        Assert.assertEquals(data.get("mongo"), "UP");
+        Assert.assertEquals(data.get("mongo.connections-percent"), 10L);
+
+        // serverStatus only accepts exclusions of top-level sections, the cache section must not be excluded
+        Document serverStatusCommand = commands.get(1);
+        Assert.assertTrue(serverStatusCommand.containsKey("serverStatus"));
+        Assert.assertFalse(serverStatusCommand.containsKey("wiredTiger"));
+        for (String section : serverStatusCommand.keySet()) {
+            Assert.assertFalse(section.contains("."), section);
+        }
+    }
+
+    @Test(expectedExceptions = MongoCommandException.class)
+    public void otherReplicaSetStatusErrorsShouldBeThrown() {
+        MongoServerStatus.read(command -> {
+            throw commandException(13, "Unauthorized");
+        });
+    }
+
+    private static Map<String, Object> evaluate(Document replicaSetStatus, Document serverStatus) {
+        return evaluate(MongoServerStatus.read(command -> {
+            if (command.containsKey("replSetGetStatus")) {
+                if (replicaSetStatus == null) {
+                    throw commandException(76, "NoReplicationEnabled");
+                }
+                return replicaSetStatus;
+            }
+            return serverStatus;
+        }));
+    }
+
+    private static Map<String, Object> evaluate(MongoServerStatus status) {
+        HealthCheckResponseBuilder builder = HealthCheckResponse.named("MongoServerHealthCheck").up();
+        MongoServerHealthCheck.evaluate(status, CONFIGURATION).applyTo(builder);
+
+        return builder.build().getData().orElseThrow(AssertionError::new);
+    }
+
+    private static Document replicaSetStatus(Document... members) {
+        return new Document("members", Arrays.asList(members));
+    }
+
+    private static Document member(String state, long optime) {
+        return new Document("stateStr", state).append("optimeDate", new Date(optime));
+    }
+
+    private static Document serverStatus(long currentConnections, long availableConnections) {
+        return new Document("connections", new Document("current", currentConnections)
+                .append("available", availableConnections));
+    }
+
+    private static Document serverStatus(long cachePercent, long dirtyCachePercent, long connections) {
+        return serverStatus(connections, 100 - connections)
+                .append("wiredTiger", new Document("cache", new Document("maximum bytes configured", 1000L)
+                        .append("bytes currently in the cache", cachePercent * 10)
+                        .append("tracked dirty bytes in the cache", dirtyCachePercent * 10)));
+    }
+
+    private static MongoCommandException commandException(int code, String codeName) {
+        return new MongoCommandException(new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(code))
+                .append("codeName", new BsonString(codeName)), new ServerAddress());
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.status;
+
+import com.kumuluz.ee.health.enums.HealthCheckType;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.kumuluz.ee.health.status.HealthStatusFilePublisher.*;
+
+/**
+ * Test health status file round trip between {@link HealthStatusFilePublisher} and {@link HealthStatusFileReader}.
+ */
+public class HealthStatusFileTest {
+
+    private static final List<HealthCheckResponse> UP_RESULTS =
+            Collections.singletonList(HealthCheckResponse.up("StatusFileTestHealthCheck"));
+    private static final List<HealthCheckResponse> DOWN_RESULTS =
+            Collections.singletonList(HealthCheckResponse.down("StatusFileTestHealthCheck"));
+
+    private Path path;
+    private HealthStatusFilePublisher publisher;
+
+    @BeforeMethod
+    public void openPublisher() throws IOException {
+        path = Files.createTempFile("health-status", ".bin");
+        publisher = new HealthStatusFilePublisher(path);
+        publisher.open();
+    }
+
+    @AfterMethod
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testOpenedFileIsUnknown() throws IOException {
+        long[] snapshot = HealthStatusFileReader.read(path);
+
+        Assert.assertEquals(snapshot[0], 1L);
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            Assert.assertEquals(getStatus(snapshot, slot), STATUS_UNKNOWN);
+            Assert.assertEquals(getUpdatedAt(snapshot, slot), 0L);
+        }
+    }
+
+    @Test
+    public void testTypeEvaluationsRoundTrip() throws IOException {
+        long before = System.currentTimeMillis();
+        publisher.onEvaluation(HealthCheckType.LIVENESS, UP_RESULTS);
+        long[] snapshot = HealthStatusFileReader.read(path);
+
+        Assert.assertEquals(snapshot[0], 2L);
+        Assert.assertEquals(getStatus(snapshot, LIVENESS_SLOT), STATUS_UP);
+        Assert.assertEquals(getStatus(snapshot, READINESS_SLOT), STATUS_UNKNOWN);
+        Assert.assertEquals(getStatus(snapshot, AGGREGATE_SLOT), STATUS_UP);
+        Assert.assertTrue(getUpdatedAt(snapshot, LIVENESS_SLOT) >= before);
+        Assert.assertEquals(getUpdatedAt(snapshot, AGGREGATE_SLOT), getUpdatedAt(snapshot, LIVENESS_SLOT));
+
+        publisher.onEvaluation(HealthCheckType.READINESS, DOWN_RESULTS);
+        snapshot = HealthStatusFileReader.read(path);
+
+        Assert.assertEquals(snapshot[0], 3L);
+        Assert.assertEquals(getStatus(snapshot, LIVENESS_SLOT), STATUS_UP);
+        Assert.assertEquals(getStatus(snapshot, READINESS_SLOT), STATUS_DOWN);
+        Assert.assertEquals(getStatus(snapshot, AGGREGATE_SLOT), STATUS_DOWN);
+
+        publisher.onEvaluation(HealthCheckType.READINESS, Collections.emptyList());
+        snapshot = HealthStatusFileReader.read(path);
+
+        Assert.assertEquals(getStatus(snapshot, READINESS_SLOT), STATUS_UP);
+        Assert.assertEquals(getStatus(snapshot, AGGREGATE_SLOT), STATUS_UP);
+        Assert.assertEquals(getStatus(snapshot, STARTUP_SLOT), STATUS_UNKNOWN);
+    }
+
+    @Test
+    public void testBothEvaluationOnlyWritesAggregate() throws IOException {
+        publisher.onEvaluation(HealthCheckType.BOTH, DOWN_RESULTS);
+        long[] snapshot = HealthStatusFileReader.read(path);
+
+        Assert.assertEquals(getStatus(snapshot, AGGREGATE_SLOT), STATUS_DOWN);
+        Assert.assertEquals(getStatus(snapshot, LIVENESS_SLOT), STATUS_UNKNOWN);
+        Assert.assertEquals(getStatus(snapshot, READINESS_SLOT), STATUS_UNKNOWN);
+        Assert.assertEquals(getStatus(snapshot, STARTUP_SLOT), STATUS_UNKNOWN);
+    }
+
+    @Test
+    public void testStaleStatus() throws IOException {
+        publisher.onEvaluation(HealthCheckType.LIVENESS, UP_RESULTS);
+        long[] snapshot = HealthStatusFileReader.read(path);
+        long updatedAt = getUpdatedAt(snapshot, LIVENESS_SLOT);
+
+        Assert.assertEquals(HealthStatusFileReader.getStatus(snapshot, LIVENESS_SLOT, 1000, updatedAt + 1000), "UP");
+        Assert.assertEquals(HealthStatusFileReader.getStatus(snapshot, LIVENESS_SLOT, 1000, updatedAt + 1001),
+                "STALE");
+        Assert.assertEquals(HealthStatusFileReader.getStatus(snapshot, LIVENESS_SLOT, -1, updatedAt + 60000), "UP");
+        // unknown status has no update time, so it is never stale
+        Assert.assertEquals(HealthStatusFileReader.getStatus(snapshot, STARTUP_SLOT, 1000, updatedAt + 60000),
+                "UNKNOWN");
+
+        publisher.onEvaluation(HealthCheckType.LIVENESS, DOWN_RESULTS);
+        snapshot = HealthStatusFileReader.read(path);
+        updatedAt = getUpdatedAt(snapshot, LIVENESS_SLOT);
+
+        Assert.assertEquals(HealthStatusFileReader.getStatus(snapshot, LIVENESS_SLOT, 1000, updatedAt), "DOWN");
+        Assert.assertEquals(HealthStatusFileReader.getStatus(snapshot, LIVENESS_SLOT, 1000, updatedAt + 2000),
+                "STALE");
+    }
+
+    @Test
+    public void testInterruptedUpdate() throws IOException {
+        publisher.onEvaluation(HealthCheckType.LIVENESS, UP_RESULTS);
+
+        // odd sequence, as left by a process terminated during an update
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(SEQUENCE_OFFSET);
+            file.write(new byte[]{5, 0, 0, 0, 0, 0, 0, 0});
+        }
+
+        try {
+            HealthStatusFileReader.read(path);
+            Assert.fail("Reading the file during an update should fail.");
+        } catch (IOException e) {
+            Assert.assertEquals(e.getMessage(), "Could not read consistent snapshot of the status file.");
+        }
+
+        HealthStatusFilePublisher restarted = new HealthStatusFilePublisher(path);
+        restarted.open();
+        long[] snapshot = HealthStatusFileReader.read(path);
+
+        Assert.assertEquals(snapshot[0], 4L);
+        Assert.assertEquals(getStatus(snapshot, LIVENESS_SLOT), STATUS_UNKNOWN);
+    }
+
+    @Test
+    public void testConcurrentReadsAreConsistent() throws Exception {
+        publisher.onEvaluation(HealthCheckType.READINESS, UP_RESULTS);
+        publisher.onEvaluation(HealthCheckType.LIVENESS, UP_RESULTS);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            long lastVersion = 0;
+            try {
+                while (running.get()) {
+                    long[] snapshot = HealthStatusFileReader.read(path);
+
+                    // aggregate and liveness slots are always written together, a torn read would differ
+                    Assert.assertEquals(getStatus(snapshot, AGGREGATE_SLOT), getStatus(snapshot, LIVENESS_SLOT));
+                    Assert.assertEquals(getUpdatedAt(snapshot, AGGREGATE_SLOT),
+                            getUpdatedAt(snapshot, LIVENESS_SLOT));
+                    Assert.assertTrue(snapshot[0] >= lastVersion);
+                    lastVersion = snapshot[0];
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 10000; i++) {
+            publisher.onEvaluation(HealthCheckType.LIVENESS, i % 2 == 0 ? DOWN_RESULTS : UP_RESULTS);
+            // give the reader a chance to read between updates, it gives up after a bounded number of attempts
+            Thread.yield();
+        }
+        running.set(false);
+        reader.join();
+
+        if (failure.get() != null) {
+            throw new AssertionError("Inconsistent snapshot read.", failure.get());
+        }
+        Assert.assertEquals(HealthStatusFileReader.read(path)[0], 10003L);
+    }
+
+    private static int getStatus(long[] snapshot, int slot) {
+        return (int) snapshot[1 + slot * 2];
+    }
+
+    private static long getUpdatedAt(long[] snapshot, int slot) {
+        return snapshot[2 + slot * 2];
+    }
+}
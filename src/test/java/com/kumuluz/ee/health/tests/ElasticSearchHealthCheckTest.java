@@ -0,0 +1,140 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Test cluster status and shard thresholds of the Elasticsearch health check against a stub of the cluster health API.
+ */
+public class ElasticSearchHealthCheckTest extends Arquillian {
+
+    private static HttpServer httpServer;
+
+    @ArquillianResource
+    private URI uri;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws IOException {
+
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/yellow/_cluster/health", exchange -> {
+            // the cluster did not reach the awaited status, Elasticsearch responds with status 408
+            boolean waiting = exchange.getRequestURI().getQuery() != null &&
+                    exchange.getRequestURI().getQuery().contains("wait_for_status=green");
+
+            respond(exchange, waiting ? 408 : 200, "{\"cluster_name\":\"logs\",\"status\":\"yellow\"," +
+                    "\"timed_out\":" + waiting + ",\"number_of_nodes\":1,\"relocating_shards\":0," +
+                    "\"initializing_shards\":0,\"unassigned_shards\":5}");
+        });
+        httpServer.createContext("/red/_cluster/health", exchange ->
+                respond(exchange, 200, "{\"cluster_name\":\"search\",\"status\":\"red\",\"timed_out\":false," +
+                        "\"relocating_shards\":1,\"initializing_shards\":2,\"unassigned_shards\":12}"));
+        httpServer.setExecutor(Executors.newCachedThreadPool());
+        httpServer.start();
+
+        String config = new BufferedReader(new InputStreamReader(Objects.requireNonNull(
+                ElasticSearchHealthCheckTest.class.getClassLoader().getResourceAsStream("elastic-search-hc.yml"),
+                "Could not load config.yml"
+        ))).lines().collect(Collectors.joining("\n"))
+                .replace("<es_port>", String.valueOf(httpServer.getAddress().getPort()));
+
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsResource(new StringAsset(config), "config.yml");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    @AfterClass
+    public static void stopHttpServer() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void healthApiShouldReportClusterStatusAndShards() throws IOException {
+        JsonObject healthApiResponse = getHealthApiResponse();
+        JsonArray checks = healthApiResponse.getJsonArray("checks");
+        Assert.assertEquals(checks.size(), 1);
+
+        JsonObject check = (JsonObject) checks.get(0);
+        Assert.assertEquals(check.getString("name"), "ElasticSearchHealthCheck");
+        Assert.assertEquals(check.getString("status"), "DOWN");
+
+        JsonObject data = check.getJsonObject("data");
+        Assert.assertEquals(data.getString("logs"), "DEGRADED");
+        Assert.assertEquals(data.getString("logs.status"), "yellow");
+        Assert.assertEquals(data.getJsonNumber("logs.unassigned-shards").longValue(), 5);
+        Assert.assertEquals(data.getString("search"), "DOWN");
+        Assert.assertEquals(data.getJsonNumber("search.unassigned-shards").longValue(), 12);
+        Assert.assertEquals(data.getJsonNumber("search.relocating-shards").longValue(), 1);
+    }
+
+    private JsonObject getHealthApiResponse() throws IOException {
+
+        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
+            HttpResponse response = client.execute(new HttpGet(uri + "/health"));
+            Assert.assertEquals(response.getStatusLine().getStatusCode(), 503);
+
+            JsonReader jsonReader = Json.createReader(response.getEntity().getContent());
+            return jsonReader.readObject();
+        }
+    }
+}
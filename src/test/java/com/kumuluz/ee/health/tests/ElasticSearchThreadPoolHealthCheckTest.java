@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Test queue fill thresholds of the Elasticsearch thread pool health check against a stub of the thread pool cat API.
+ */
+public class ElasticSearchThreadPoolHealthCheckTest extends Arquillian {
+
+    private static HttpServer httpServer;
+
+    @ArquillianResource
+    private URI uri;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws IOException {
+
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/_cat/thread_pool", exchange ->
+                respond(exchange, 200, "[{\"node_name\":\"es-1\",\"name\":\"search\",\"queue\":\"10\"," +
+                        "\"queue_size\":\"1000\",\"rejected\":\"0\"},{\"node_name\":\"es-1\",\"name\":\"write\"," +
+                        "\"queue\":\"950\",\"queue_size\":\"1000\",\"rejected\":\"4\"},{\"node_name\":\"es-2\"," +
+                        "\"name\":\"write\",\"queue\":\"600\",\"queue_size\":\"1000\",\"rejected\":\"0\"}]"));
+        httpServer.setExecutor(Executors.newCachedThreadPool());
+        httpServer.start();
+
+        String config = new BufferedReader(new InputStreamReader(Objects.requireNonNull(
+                ElasticSearchThreadPoolHealthCheckTest.class.getClassLoader()
+                        .getResourceAsStream("elastic-search-thread-pool-hc.yml"),
+                "Could not load config.yml"
+        ))).lines().collect(Collectors.joining("\n"))
+                .replace("<es_port>", String.valueOf(httpServer.getAddress().getPort()));
+
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsResource(new StringAsset(config), "config.yml");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    @AfterClass
+    public static void stopHttpServer() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void healthApiShouldReportSaturatedThreadPools() throws IOException {
+        JsonObject healthApiResponse = getHealthApiResponse();
+        JsonArray checks = healthApiResponse.getJsonArray("checks");
+        Assert.assertEquals(checks.size(), 1);
+
+        JsonObject check = (JsonObject) checks.get(0);
+        Assert.assertEquals(check.getString("name"), "ElasticSearchThreadPoolHealthCheck");
+        Assert.assertEquals(check.getString("status"), "DOWN");
+
+        // the fullest node is reported, rejection rates are only known from the second check on
+        JsonObject data = check.getJsonObject("data");
+        Assert.assertEquals(data.getString("logs.write"), "DOWN");
+        Assert.assertEquals(data.getJsonNumber("logs.write.queue-fill-percent").longValue(), 95);
+        Assert.assertEquals(data.getString("logs.search"), "UP");
+        Assert.assertEquals(data.getJsonNumber("logs.search.queue-fill-percent").longValue(), 1);
+    }
+
+    private JsonObject getHealthApiResponse() throws IOException {
+
+        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
+            HttpResponse response = client.execute(new HttpGet(uri + "/health"));
+            Assert.assertEquals(response.getStatusLine().getStatusCode(), 503);
+
+            JsonReader jsonReader = Json.createReader(response.getEntity().getContent());
+            return jsonReader.readObject();
+        }
+    }
+}
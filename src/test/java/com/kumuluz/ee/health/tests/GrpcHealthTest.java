@@ -0,0 +1,156 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import com.kumuluz.ee.health.HealthRegistry;
+import com.kumuluz.ee.health.enums.HealthCheckType;
+import com.kumuluz.ee.health.grpc.GrpcHealthService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.health.v1.HealthCheckRequest;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.health.v1.HealthGrpc;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test gRPC Health Checking Protocol service over an in-process transport.
+ */
+public class GrpcHealthTest {
+
+    private static final String HEALTH_CHECK_NAME = "GrpcTestHealthCheck";
+
+    private final AtomicBoolean up = new AtomicBoolean(true);
+
+    private GrpcHealthService healthService;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        HealthRegistry healthRegistry = HealthRegistry.getInstance();
+        healthRegistry.register(HEALTH_CHECK_NAME, () -> org.eclipse.microprofile.health.HealthCheckResponse
+                .named(HEALTH_CHECK_NAME)
+                .status(up.get())
+                .build(), HealthCheckType.READINESS);
+
+        healthService = new GrpcHealthService(healthRegistry);
+        healthRegistry.addEvaluationListener(healthService);
+
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .directExecutor()
+                .addService(healthService)
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName)
+                .directExecutor()
+                .build();
+    }
+
+    @AfterClass
+    public void stopServer() throws InterruptedException {
+        HealthRegistry.getInstance().removeEvaluationListener(healthService);
+        HealthRegistry.getInstance().unregister(HEALTH_CHECK_NAME);
+
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void checkShouldReturnServingStatus() {
+        HealthGrpc.HealthBlockingStub stub = HealthGrpc.newBlockingStub(channel);
+
+        for (String service : new String[]{"", "readiness", HEALTH_CHECK_NAME}) {
+            HealthCheckResponse response = stub.check(HealthCheckRequest.newBuilder().setService(service).build());
+            Assert.assertEquals(response.getStatus(), HealthCheckResponse.ServingStatus.SERVING);
+        }
+    }
+
+    @Test
+    public void checkShouldReturnNotFoundForUnknownService() {
+        try {
+            HealthGrpc.newBlockingStub(channel)
+                    .check(HealthCheckRequest.newBuilder().setService("UnknownHealthCheck").build());
+            Assert.fail("Expected NOT_FOUND status.");
+        } catch (StatusRuntimeException e) {
+            Assert.assertEquals(e.getStatus().getCode(), Status.Code.NOT_FOUND);
+        }
+    }
+
+    @Test
+    public void watchShouldSendUnknownStatusForUnknownService() throws InterruptedException {
+        BlockingQueue<HealthCheckResponse.ServingStatus> statuses = watch("UnknownHealthCheck");
+
+        Assert.assertEquals(statuses.poll(5, TimeUnit.SECONDS), HealthCheckResponse.ServingStatus.SERVICE_UNKNOWN);
+    }
+
+    @Test(dependsOnMethods = {"checkShouldReturnServingStatus"})
+    public void watchShouldNotifyMixedCaseTypeService() throws InterruptedException {
+        BlockingQueue<HealthCheckResponse.ServingStatus> statuses = watch("Readiness");
+        Assert.assertEquals(statuses.poll(5, TimeUnit.SECONDS), HealthCheckResponse.ServingStatus.SERVING);
+
+        // evaluation of the type notifies watchers of the type regardless of the case of the watched service
+        up.set(false);
+        HealthRegistry.getInstance().getResults(HealthCheckType.READINESS);
+        Assert.assertEquals(statuses.poll(5, TimeUnit.SECONDS), HealthCheckResponse.ServingStatus.NOT_SERVING);
+
+        up.set(true);
+        HealthRegistry.getInstance().getResults(HealthCheckType.READINESS);
+        Assert.assertEquals(statuses.poll(5, TimeUnit.SECONDS), HealthCheckResponse.ServingStatus.SERVING);
+    }
+
+    private BlockingQueue<HealthCheckResponse.ServingStatus> watch(String service) {
+        BlockingQueue<HealthCheckResponse.ServingStatus> statuses = new LinkedBlockingQueue<>();
+
+        HealthGrpc.newStub(channel).watch(HealthCheckRequest.newBuilder().setService(service).build(),
+                new StreamObserver<HealthCheckResponse>() {
+                    @Override
+                    public void onNext(HealthCheckResponse response) {
+                        statuses.add(response.getStatus());
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        // watch is cancelled when the channel is shut down
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+
+        return statuses;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import com.kumuluz.ee.health.tests.beans.DiagnosticsHealthCheckBean;
+import com.kumuluz.ee.health.tests.beans.InventoryHealthCheckBean;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Test gzip compression of health endpoint responses.
+ */
+public class GzipHealthEndpointTest extends Arquillian {
+
+    @ArquillianResource
+    private URI uri;
+
+    @Deployment
+    public static JavaArchive createDeployment() {
+
+        return ShrinkWrap.create(JavaArchive.class)
+                .addClasses(InventoryHealthCheckBean.class, DiagnosticsHealthCheckBean.class)
+                .addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Test
+    @RunAsClient
+    public void largeResponseShouldBeCompressed() throws IOException {
+        JsonObject check = getCheck(getHealthApiResponse("/health/live", "gzip", true));
+
+        Assert.assertEquals(check.getString("name"), "InventoryHealthCheckBean");
+        Assert.assertEquals(check.getString("status"), "UP");
+    }
+
+    @Test
+    @RunAsClient
+    public void smallResponseShouldNotBeCompressed() throws IOException {
+        JsonObject check = getCheck(getHealthApiResponse("/health/group/diagnostics", "gzip", false));
+
+        Assert.assertEquals(check.getString("name"), "DiagnosticsHealthCheckBean");
+    }
+
+    @Test
+    @RunAsClient
+    public void responseShouldNotBeCompressedWithoutGzipEncoding() throws IOException {
+        for (String acceptEncoding : new String[]{null, "identity", "gzip;q=0"}) {
+            JsonObject check = getCheck(getHealthApiResponse("/health/live", acceptEncoding, false));
+
+            Assert.assertEquals(check.getString("name"), "InventoryHealthCheckBean");
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void changedResponseShouldBeCompressedAgain() throws IOException {
+        long first = getCheck(getHealthApiResponse("/health/live", "gzip", true))
+                .getJsonObject("data").getJsonNumber("evaluations").longValue();
+        long second = getCheck(getHealthApiResponse("/health/live", "gzip", true))
+                .getJsonObject("data").getJsonNumber("evaluations").longValue();
+
+        Assert.assertTrue(second > first);
+    }
+
+    private JsonObject getCheck(JsonObject healthResponse) {
+        Assert.assertEquals(healthResponse.getJsonArray("checks").size(), 1);
+
+        return healthResponse.getJsonArray("checks").getJsonObject(0);
+    }
+
+    private JsonObject getHealthApiResponse(String path, String acceptEncoding, boolean compressed)
+            throws IOException {
+
+        // content compression is disabled, so the client does not send Accept-Encoding nor decompress the response
+        try (CloseableHttpClient client = HttpClientBuilder.create().disableContentCompression().build()) {
+            HttpGet request = new HttpGet(uri + path);
+            if (acceptEncoding != null) {
+                request.setHeader("Accept-Encoding", acceptEncoding);
+            }
+
+            HttpResponse response = client.execute(request);
+            Assert.assertEquals(response.getStatusLine().getStatusCode(), 200);
+            Assert.assertEquals(response.getFirstHeader("Vary").getValue(), "Accept-Encoding");
+
+            InputStream content = response.getEntity().getContent();
+            if (compressed) {
+                Assert.assertEquals(response.getFirstHeader("Content-Encoding").getValue(), "gzip");
+                content = new GZIPInputStream(content);
+            } else {
+                Assert.assertNull(response.getFirstHeader("Content-Encoding"));
+            }
+
+            JsonReader jsonReader = Json.createReader(content);
+            return jsonReader.readObject();
+        }
+    }
+}
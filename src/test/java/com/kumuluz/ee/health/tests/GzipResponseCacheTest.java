@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import com.kumuluz.ee.health.utils.GzipResponseCache;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Test compression and caching of compressed health responses.
+ */
+public class GzipResponseCacheTest {
+
+    private static final byte[] UP_BODY = "{\"status\":\"UP\",\"checks\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DOWN_BODY = "{\"status\":\"DOWN\",\"checks\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void compressedBodyShouldBeCached() throws IOException {
+        GzipResponseCache cache = new GzipResponseCache();
+
+        byte[] compressed = cache.compress("type:LIVENESS", UP_BODY);
+        Assert.assertEquals(gunzip(compressed), UP_BODY);
+        Assert.assertSame(cache.compress("type:LIVENESS", UP_BODY.clone()), compressed);
+    }
+
+    @Test
+    public void cachedBodyShouldBeInvalidatedWhenBodyChanges() throws IOException {
+        GzipResponseCache cache = new GzipResponseCache();
+
+        byte[] compressed = cache.compress("type:LIVENESS", UP_BODY);
+        byte[] changed = cache.compress("type:LIVENESS", DOWN_BODY);
+        Assert.assertNotSame(changed, compressed);
+        Assert.assertEquals(gunzip(changed), DOWN_BODY);
+
+        Assert.assertEquals(gunzip(cache.compress("type:LIVENESS", UP_BODY)), UP_BODY);
+    }
+
+    @Test
+    public void bodiesShouldBeCachedPerKey() throws IOException {
+        GzipResponseCache cache = new GzipResponseCache();
+
+        byte[] liveness = cache.compress("type:LIVENESS", UP_BODY);
+        byte[] readiness = cache.compress("type:READINESS", DOWN_BODY);
+        Assert.assertSame(cache.compress("type:LIVENESS", UP_BODY), liveness);
+        Assert.assertSame(cache.compress("type:READINESS", DOWN_BODY), readiness);
+    }
+
+    @Test
+    public void bodyWithoutKeyShouldNotBeCached() throws IOException {
+        GzipResponseCache cache = new GzipResponseCache();
+
+        byte[] compressed = cache.compress(null, UP_BODY);
+        Assert.assertEquals(gunzip(compressed), UP_BODY);
+        Assert.assertNotSame(cache.compress(null, UP_BODY), compressed);
+    }
+
+    @Test
+    public void acceptEncodingShouldBeParsed() {
+        Assert.assertTrue(GzipResponseCache.acceptsGzip("gzip"));
+        Assert.assertTrue(GzipResponseCache.acceptsGzip("deflate, GZIP;q=0.5"));
+        Assert.assertTrue(GzipResponseCache.acceptsGzip("*"));
+        Assert.assertFalse(GzipResponseCache.acceptsGzip(null));
+        Assert.assertFalse(GzipResponseCache.acceptsGzip("identity"));
+        Assert.assertFalse(GzipResponseCache.acceptsGzip("gzip;q=0"));
+        Assert.assertFalse(GzipResponseCache.acceptsGzip("gzip; q=0.000"));
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Test health endpoints served by the health management server.
+ */
+public class ManagementServerTest extends Arquillian {
+
+    private static int managementPort;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws IOException {
+
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            managementPort = serverSocket.getLocalPort();
+        }
+
+        String config = new BufferedReader(new InputStreamReader(Objects.requireNonNull(
+                ManagementServerTest.class.getClassLoader().getResourceAsStream("management-hc.yml"),
+                "Could not load config.yml"
+        ))).lines().collect(Collectors.joining("\n"))
+                .replace("<management_port>", String.valueOf(managementPort));
+
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsResource(new StringAsset(config), "config.yml");
+    }
+
+    @Test
+    @RunAsClient
+    public void managementServerShouldServeHealthEndpoints() throws IOException {
+        for (String path : new String[]{"/health", "/health/ready", "/health/check/DiskSpaceHealthCheck"}) {
+            JsonArray checks = getHealthApiResponse(path).getJsonArray("checks");
+            Assert.assertEquals(checks.size(), 1);
+            Assert.assertEquals(((JsonObject) checks.get(0)).getString("name"), "DiskSpaceHealthCheck");
+            Assert.assertEquals(((JsonObject) checks.get(0)).getString("status"), "UP");
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void managementServerShouldNotServeOtherPaths() throws IOException {
+
+        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
+            HttpResponse response = client.execute(new HttpGet("http://localhost:" + managementPort + "/healthz"));
+            Assert.assertEquals(response.getStatusLine().getStatusCode(), 404);
+        }
+    }
+
+    private JsonObject getHealthApiResponse(String path) throws IOException {
+
+        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
+            HttpResponse response = client.execute(new HttpGet("http://localhost:" + managementPort + path));
+            Assert.assertEquals(response.getStatusLine().getStatusCode(), 200);
+
+            JsonReader jsonReader = Json.createReader(response.getEntity().getContent());
+            return jsonReader.readObject();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Test backlog and consumer thresholds of the RabbitMQ queue health check against a stub of the management API.
+ */
+public class RabbitQueueHealthCheckTest extends Arquillian {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString("monitor:secret".getBytes(StandardCharsets.UTF_8));
+
+    private static HttpServer httpServer;
+
+    @ArquillianResource
+    private URI uri;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws IOException {
+
+        long now = System.currentTimeMillis() / 1000;
+
+        Map<String, String> queues = new HashMap<>();
+        queues.put("/api/queues/%2F/orders", "{\"messages_ready\":5,\"consumers\":2}");
+        queues.put("/api/queues/%2F/invoices", "{\"messages_ready\":500,\"consumers\":1}");
+        queues.put("/api/queues/%2F/emails", "{\"messages_ready\":0,\"consumers\":0}");
+        queues.put("/api/queues/billing/reports",
+                "{\"messages_ready\":3,\"consumers\":1,\"head_message_timestamp\":" + (now - 600) + "}");
+        queues.put("/api/queues/billing/orders", "{\"messages_ready\":7,\"consumers\":3}");
+
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/api/queues/", exchange -> {
+            String body = queues.get(exchange.getRequestURI().getRawPath());
+            int status = body != null ? 200 : 404;
+
+            if (!AUTHORIZATION.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                status = 401;
+                body = null;
+            }
+
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+                exchange.close();
+                return;
+            }
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        });
+        httpServer.setExecutor(Executors.newCachedThreadPool());
+        httpServer.start();
+
+        String config = new BufferedReader(new InputStreamReader(Objects.requireNonNull(
+                RabbitQueueHealthCheckTest.class.getClassLoader().getResourceAsStream("rabbit-queue-hc.yml"),
+                "Could not load config.yml"
+        ))).lines().collect(Collectors.joining("\n"))
+                .replace("<management_port>", String.valueOf(httpServer.getAddress().getPort()));
+
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsResource(new StringAsset(config), "config.yml");
+    }
+
+    @AfterClass
+    public static void stopHttpServer() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void healthApiShouldReportQueueBacklog() throws IOException {
+        JsonObject healthApiResponse = getHealthApiResponse();
+        JsonArray checks = healthApiResponse.getJsonArray("checks");
+        Assert.assertEquals(checks.size(), 1);
+
+        JsonObject check = (JsonObject) checks.get(0);
+        Assert.assertEquals(check.getString("name"), "RabbitQueueHealthCheck");
+        Assert.assertEquals(check.getString("status"), "DOWN");
+
+        JsonObject data = check.getJsonObject("data");
+        Assert.assertEquals(data.getString("orders"), "UP");
+        Assert.assertEquals(data.getJsonNumber("orders.messages").longValue(), 5);
+        Assert.assertEquals(data.getJsonNumber("orders.consumers").longValue(), 2);
+        Assert.assertEquals(data.getString("invoices"), "DEGRADED");
+        Assert.assertEquals(data.getJsonNumber("invoices.messages").longValue(), 500);
+        Assert.assertEquals(data.getString("emails"), "DOWN");
+        Assert.assertEquals(data.getString("billing/reports"), "DOWN");
+        Assert.assertTrue(data.getJsonNumber("billing/reports.message-age-s").longValue() >= 600);
+        Assert.assertEquals(data.getString("billing/orders"), "UP");
+        Assert.assertEquals(data.getJsonNumber("billing/orders.messages").longValue(), 7);
+        Assert.assertEquals(data.getJsonNumber("billing/orders.consumers").longValue(), 3);
+        Assert.assertEquals(data.getString("missing"), "DOWN");
+    }
+
+    private JsonObject getHealthApiResponse() throws IOException {
+
+        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
+            HttpResponse response = client.execute(new HttpGet(uri + "/health"));
+            Assert.assertEquals(response.getStatusLine().getStatusCode(), 503);
+
+            JsonReader jsonReader = Json.createReader(response.getEntity().getContent());
+            return jsonReader.readObject();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import com.kumuluz.ee.health.tests.utils.FakeRedisServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Test Redis health check against a fake Redis server.
+ */
+public class RedisHealthCheckTest extends Arquillian {
+
+    private static FakeRedisServer redisServer;
+
+    @ArquillianResource
+    private URI uri;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws IOException {
+
+        redisServer = new FakeRedisServer();
+
+        int closedPort;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            closedPort = serverSocket.getLocalPort();
+        }
+
+        String config = new BufferedReader(new InputStreamReader(Objects.requireNonNull(
+                RedisHealthCheckTest.class.getClassLoader().getResourceAsStream("redis-hc.yml"),
+                "Could not load config.yml"
+        ))).lines().collect(Collectors.joining("\n"))
+                .replace("<redis_port>", String.valueOf(redisServer.getPort()))
+                .replace("<closed_port>", String.valueOf(closedPort));
+
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsResource(new StringAsset(config), "config.yml");
+    }
+
+    @AfterClass
+    public static void stopRedisServer() throws IOException {
+        if (redisServer != null) {
+            redisServer.close();
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void healthApiShouldReportNamedRedisTargets() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            JsonObject healthApiResponse = getHealthApiResponse();
+            JsonArray checks = healthApiResponse.getJsonArray("checks");
+            Assert.assertEquals(checks.size(), 1);
+
+            JsonObject check = (JsonObject) checks.get(0);
+            Assert.assertEquals(check.getString("name"), "RedisHealthCheck");
+            Assert.assertEquals(check.getString("status"), "DOWN");
+
+            JsonObject data = check.getJsonObject("data");
+            Assert.assertEquals(data.getString("cache"), "UP");
+            Assert.assertTrue(data.getJsonNumber("cache.latency-ms").longValue() >= 0);
+            Assert.assertEquals(data.getString("sessions"), "DOWN");
+        }
+    }
+
+    private JsonObject getHealthApiResponse() throws IOException {
+
+        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
+            HttpResponse response = client.execute(new HttpGet(uri + "/health"));
+            Assert.assertEquals(response.getStatusLine().getStatusCode(), 503);
+
+            JsonReader jsonReader = Json.createReader(response.getEntity().getContent());
+            return jsonReader.readObject();
+        }
+    }
+}
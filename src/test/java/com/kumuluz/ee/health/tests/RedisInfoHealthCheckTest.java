@@ -0,0 +1,126 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import com.kumuluz.ee.health.tests.utils.FakeRedisServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Test memory and replication thresholds of the Redis pressure health check against fake Redis servers.
+ */
+public class RedisInfoHealthCheckTest extends Arquillian {
+
+    private static FakeRedisServer cacheServer;
+    private static FakeRedisServer replicaServer;
+
+    @ArquillianResource
+    private URI uri;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws IOException {
+
+        cacheServer = new FakeRedisServer();
+        cacheServer.setReply("INFO", "# Clients\r\nconnected_clients:12\r\nblocked_clients:1\r\n\r\n" +
+                "# Memory\r\nused_memory:870000\r\nused_memory_human:849.61K\r\nmaxmemory:1000000\r\n\r\n" +
+                "# Stats\r\ninstantaneous_ops_per_sec:150\r\nevicted_keys:0\r\n\r\n" +
+                "# Replication\r\nrole:master\r\nconnected_slaves:1\r\n" +
+                "slave0:ip=10.0.0.2,port=6379,state=online,offset=4000,lag=1\r\nmaster_repl_offset:4096\r\n");
+
+        replicaServer = new FakeRedisServer();
+        replicaServer.setReply("INFO", "# Replication\r\nrole:slave\r\nmaster_host:10.0.0.1\r\n" +
+                "master_port:6379\r\nmaster_link_status:down\r\nmaster_last_io_seconds_ago:-1\r\n");
+
+        String config = new BufferedReader(new InputStreamReader(Objects.requireNonNull(
+                RedisInfoHealthCheckTest.class.getClassLoader().getResourceAsStream("redis-info-hc.yml"),
+                "Could not load config.yml"
+        ))).lines().collect(Collectors.joining("\n"))
+                .replace("<cache_port>", String.valueOf(cacheServer.getPort()))
+                .replace("<replica_port>", String.valueOf(replicaServer.getPort()));
+
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsResource(new StringAsset(config), "config.yml");
+    }
+
+    @AfterClass
+    public static void stopRedisServers() throws IOException {
+        if (cacheServer != null) {
+            cacheServer.close();
+        }
+        if (replicaServer != null) {
+            replicaServer.close();
+        }
+    }
+
+    @Test
+    @RunAsClient
+    public void healthApiShouldReportRedisPressure() throws IOException {
+        JsonObject healthApiResponse = getHealthApiResponse();
+        JsonArray checks = healthApiResponse.getJsonArray("checks");
+        Assert.assertEquals(checks.size(), 1);
+
+        JsonObject check = (JsonObject) checks.get(0);
+        Assert.assertEquals(check.getString("name"), "RedisInfoHealthCheck");
+        Assert.assertEquals(check.getString("status"), "DOWN");
+
+        JsonObject data = check.getJsonObject("data");
+        Assert.assertEquals(data.getString("cache"), "DEGRADED");
+        Assert.assertEquals(data.getJsonNumber("cache.memory-percent").longValue(), 87);
+        Assert.assertEquals(data.getJsonNumber("cache.blocked-clients").longValue(), 1);
+        Assert.assertEquals(data.getJsonNumber("cache.ops-per-sec").longValue(), 150);
+        Assert.assertEquals(data.getJsonNumber("cache.replication-lag-bytes").longValue(), 96);
+        Assert.assertEquals(data.getString("replica"), "DOWN");
+    }
+
+    private JsonObject getHealthApiResponse() throws IOException {
+
+        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
+            HttpResponse response = client.execute(new HttpGet(uri + "/health"));
+            Assert.assertEquals(response.getStatusLine().getStatusCode(), 503);
+
+            JsonReader jsonReader = Json.createReader(response.getEntity().getContent());
+            return jsonReader.readObject();
+        }
+    }
+}
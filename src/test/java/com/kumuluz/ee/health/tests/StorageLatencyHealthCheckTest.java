@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Test storage latency health check with a writable and a missing directory.
+ */
+public class StorageLatencyHealthCheckTest extends Arquillian {
+
+    @ArquillianResource
+    private URI uri;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws IOException {
+
+        Path probeDirectory = Files.createTempDirectory("storage-latency");
+        probeDirectory.toFile().deleteOnExit();
+
+        String config = new BufferedReader(new InputStreamReader(Objects.requireNonNull(
+                StorageLatencyHealthCheckTest.class.getClassLoader().getResourceAsStream("storage-latency-hc.yml"),
+                "Could not load config.yml"
+        ))).lines().collect(Collectors.joining("\n"))
+                .replace("<probe_directory>", probeDirectory.toString())
+                .replace("<missing_directory>", probeDirectory.resolve("missing").toString());
+
+        return ShrinkWrap.create(JavaArchive.class)
+                .addAsResource(new StringAsset(config), "config.yml");
+    }
+
+    @Test
+    @RunAsClient
+    public void healthApiShouldReportStorageLatency() throws IOException, InterruptedException {
+        JsonObject check = null;
+
+        // probes run in the background, the first responses may not contain their results yet
+        for (int i = 0; i < 50; i++) {
+            JsonObject healthApiResponse = getHealthApiResponse();
+            JsonArray checks = healthApiResponse.getJsonArray("checks");
+            Assert.assertEquals(checks.size(), 1);
+
+            check = (JsonObject) checks.get(0);
+            JsonObject data = check.getJsonObject("data");
+            if (data != null && data.containsKey("data.fsync-p99-ms") && data.containsKey("missing.error")) {
+                break;
+            }
+
+            Thread.sleep(100);
+        }
+
+        Assert.assertNotNull(check);
+        Assert.assertEquals(check.getString("name"), "StorageLatencyHealthCheck");
+        Assert.assertEquals(check.getString("status"), "DOWN");
+
+        JsonObject data = check.getJsonObject("data");
+        Assert.assertEquals(data.getString("data"), "UP");
+        Assert.assertTrue(data.getJsonNumber("data.write-p50-ms").longValue() >= 0);
+        Assert.assertTrue(data.getJsonNumber("data.fsync-p99-ms").longValue() >= 0);
+        Assert.assertEquals(data.getString("missing"), "DOWN");
+        Assert.assertTrue(data.containsKey("missing.error"));
+    }
+
+    private JsonObject getHealthApiResponse() throws IOException {
+
+        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
+            HttpResponse response = client.execute(new HttpGet(uri + "/health"));
+
+            JsonReader jsonReader = Json.createReader(response.getEntity().getContent());
+            return jsonReader.readObject();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.health.tests.utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal Redis server speaking the RESP protocol. Replies {@code +PONG} to {@code PING}, the configured bulk string to
+ * other configured commands and {@code +OK} to all other commands.
+ */
+public class FakeRedisServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, String> bulkReplies = new ConcurrentHashMap<>();
+
+    public FakeRedisServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+        Thread acceptThread = new Thread(this::accept, "fake-redis-server");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Sets the bulk string reply of the command.
+     */
+    public void setReply(String command, String reply) {
+        bulkReplies.put(command.toUpperCase(Locale.ROOT), reply);
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+
+                Thread connectionThread = new Thread(() -> serve(socket), "fake-redis-connection");
+                connectionThread.setDaemon(true);
+                connectionThread.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(),
+                     StandardCharsets.UTF_8))) {
+            OutputStream outputStream = s.getOutputStream();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("*")) {
+                    continue;
+                }
+
+                int arguments = Integer.parseInt(line.substring(1));
+                String command = null;
+                for (int i = 0; i < arguments; i++) {
+                    // skip length of the bulk string
+                    reader.readLine();
+                    String argument = reader.readLine();
+
+                    if (i == 0) {
+                        command = argument.toUpperCase(Locale.ROOT);
+                    }
+                }
+
+                outputStream.write(reply(command).getBytes(StandardCharsets.UTF_8));
+                outputStream.flush();
+            }
+        } catch (IOException ignored) {
+            // connection closed
+        }
+    }
+
+    private String reply(String command) {
+        if ("PING".equals(command)) {
+            return "+PONG\r\n";
+        }
+
+        String bulkReply = bulkReplies.get(command);
+        if (bulkReply != null) {
+            return "$" + bulkReply.getBytes(StandardCharsets.UTF_8).length + "\r\n" + bulkReply + "\r\n";
+        }
+
+        return "+OK\r\n";
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}